@@ -0,0 +1,56 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Role;
+import com.example.todolist.model.Task;
+import com.example.todolist.model.User;
+import com.example.todolist.service.TaskService;
+import com.example.todolist.service.UserService;
+
+// Jeux de données synthétiques communs aux benchmarks
+final class BenchmarkData {
+
+    static final String STANDARD_USER_ID = "user0";
+    static final String COMPANY_ADMIN_ID = "admin0";
+    static final String SUPER_USER_ID = "root";
+
+    // Nombre d'utilisateurs standards par compagnie
+    static final int USERS_PER_COMPANY = 10;
+
+    private BenchmarkData() {
+    }
+
+    // La tâche i appartient à la compagnie i % companyCount et à un utilisateur de cette compagnie
+    static Task task(int i, int companyCount) {
+        return new Task(taskId(i), "Tâche numéro " + i, "user" + (i % (companyCount * USERS_PER_COMPANY)), "company" + (i % companyCount));
+    }
+
+    static String taskId(int i) {
+        return String.format("task%08d", i);
+    }
+
+    static TaskService taskService(int taskCount, int companyCount) {
+        TaskService taskService = new TaskService();
+        taskService.clearTasks();
+        for (int i = 0; i < taskCount; i++) {
+            taskService.addTask(task(i, companyCount));
+        }
+        return taskService;
+    }
+
+    static UserService userService() {
+        UserService userService = new UserService();
+        userService.clearUsers();
+        userService.addUser(new User(STANDARD_USER_ID, "Standard", Role.STANDARD, "company0"));
+        userService.addUser(new User(COMPANY_ADMIN_ID, "Admin", Role.COMPANY_ADMIN, "company0"));
+        userService.addUser(new User(SUPER_USER_ID, "Super", Role.SUPER_USER, null));
+        return userService;
+    }
+
+    static String userIdFor(Role role) {
+        return switch (role) {
+            case STANDARD -> STANDARD_USER_ID;
+            case COMPANY_ADMIN -> COMPANY_ADMIN_ID;
+            case SUPER_USER -> SUPER_USER_ID;
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.persistence.FileJournal;
+import com.example.todolist.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Coût du journal : latence d'écriture (group commit ou non) et temps de redémarrage par rejeu
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @State(Scope.Benchmark)
+    public static class WriteState {
+
+        @Param({"none", "async", "sync"})
+        public String mode;
+
+        private Path directory;
+        private FileJournal<Task> journal;
+        TaskService taskService;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            if (mode.equals("none")) {
+                taskService = new TaskService();
+                return;
+            }
+            directory = Files.createTempDirectory("journal-bench");
+            journal = new FileJournal<>(directory, "tasks", Task.class, OBJECT_MAPPER, mode.equals("sync"), 5, 0);
+            taskService = new TaskService(journal);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (journal != null) {
+                journal.close();
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReplayState {
+
+        @Param({"100000", "1000000"})
+        public int taskCount;
+
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("journal-bench");
+            FileJournal<Task> journal = new FileJournal<>(directory, "tasks", Task.class, OBJECT_MAPPER, false, 5, 0);
+            TaskService taskService = new TaskService(journal);
+            List<Task> chunk = new ArrayList<>();
+            for (int i = 0; i < taskCount; i++) {
+                chunk.add(BenchmarkData.task(i, 1000));
+                if (chunk.size() == 10_000) {
+                    taskService.addTasks(chunk);
+                    chunk.clear();
+                }
+            }
+            taskService.addTasks(chunk);
+            journal.close();
+
+            // Redémarrage depuis un instantané compacté
+            FileJournal<Task> compacting = new FileJournal<>(directory, "tasks", Task.class, OBJECT_MAPPER, false, 5, 0);
+            compacting.compact();
+            compacting.close();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public void addTask(WriteState state) {
+        state.taskService.addTask(BenchmarkData.task(ThreadLocalRandom.current().nextInt(100_000), 1000));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public TaskService restart(ReplayState state) {
+        FileJournal<Task> journal = new FileJournal<>(state.directory, "tasks", Task.class, OBJECT_MAPPER, false, 5, 0);
+        try {
+            return new TaskService(journal);
+        } finally {
+            journal.close();
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
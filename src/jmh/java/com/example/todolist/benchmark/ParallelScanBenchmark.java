@@ -0,0 +1,72 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.persistence.Journal;
+import com.example.todolist.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction d'une liste complète, séquentielle (parallelism = 1) ou parallèle sur le pool de parcours.
+ * Comparer les scores à taille égale donne le gain par nombre de threads, et la taille à partir de laquelle
+ * le parcours parallèle devient rentable (valeur de todolist.parallel-scan.threshold).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelScanBenchmark {
+
+    private static final int COMPANY_COUNT = 10;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int taskCount;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Seuil nul : toute liste passe par le pool de parcours, sauf en séquentiel
+        taskService = new TaskService(Journal.noop(), parallelism == 1 ? Long.MAX_VALUE : 0, parallelism);
+        taskService.clearTasks();
+        for (int i = 0; i < taskCount; i++) {
+            taskService.addTask(BenchmarkData.task(i, COMPANY_COUNT));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        taskService.close();
+    }
+
+    // Liste d'un Super User
+    @Benchmark
+    public List<Task> listAllTasks() {
+        return taskService.listAllTasks(null);
+    }
+
+    // Liste d'un Company Admin : un dixième des tâches
+    @Benchmark
+    public List<Task> listTasksByCompanyId() {
+        return taskService.listTasksByCompanyId("company0", null);
+    }
+}
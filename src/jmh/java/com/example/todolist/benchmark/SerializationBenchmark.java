@@ -0,0 +1,78 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.codec.WireFormat;
+import com.example.todolist.model.Task;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodage et décodage d'une liste de tâches, comme pour la réponse de GET /tasks, par format (JSON, CBOR)
+ * et par sérialiseur : celui écrit à la main pour Task, ou le sérialiseur de bean par défaut de Jackson
+ * (annotations ignorées). La taille du document est affichée au démarrage de chaque essai.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final TypeReference<List<Task>> TASK_LIST = new TypeReference<>() {
+    };
+
+    @Param({"100", "10000", "100000"})
+    public int listSize;
+
+    @Param({"JSON", "CBOR"})
+    public WireFormat format;
+
+    @Param({"true", "false"})
+    public boolean handWritten;
+
+    private ObjectMapper objectMapper;
+    private List<Task> tasks;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        objectMapper = format == WireFormat.CBOR
+                ? CBORMapper.builder().configure(MapperFeature.USE_ANNOTATIONS, handWritten).build()
+                : JsonMapper.builder().configure(MapperFeature.USE_ANNOTATIONS, handWritten).build();
+        tasks = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            tasks.add(BenchmarkData.task(i, 10));
+        }
+        payload = objectMapper.writeValueAsBytes(tasks);
+        System.out.printf("%n%s payload: %d bytes (%d bytes/task)%n", format, payload.length, payload.length / listSize);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() throws Exception {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public List<Task> deserializeTaskList() throws Exception {
+        return objectMapper.readValue(payload, TASK_LIST);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.cache.TaskListingCache;
+import com.example.todolist.codec.TaskCodec;
+import com.example.todolist.controller.TaskController;
+import com.example.todolist.feed.TaskChangeFeed;
+import com.example.todolist.metrics.TaskMetrics;
+import com.example.todolist.model.Role;
+import com.example.todolist.model.Task;
+import com.example.todolist.security.TaskPermissionEvaluator;
+import com.example.todolist.service.TaskService;
+import com.example.todolist.service.TaskWritePipeline;
+import com.example.todolist.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtrage par rôle de GET /tasks et création unitaire ou par lot, appelés directement sur le contrôleur
+ * (sans la couche HTTP).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskControllerBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int taskCount;
+
+    @Param({"10", "1000"})
+    public int companyCount;
+
+    @Param({"STANDARD", "COMPANY_ADMIN", "SUPER_USER"})
+    public Role role;
+
+    private TaskService taskService;
+    private TaskController taskController;
+    private String userId;
+    private List<Task> batch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        taskService = BenchmarkData.taskService(taskCount, companyCount);
+        taskController = new TaskController();
+        ReflectionTestUtils.setField(taskController, "taskService", taskService);
+        UserService userService = BenchmarkData.userService();
+        ReflectionTestUtils.setField(taskController, "userService", userService);
+        ReflectionTestUtils.setField(taskController, "permissionEvaluator", new TaskPermissionEvaluator());
+        TaskCodec taskCodec = new TaskCodec(new ObjectMapper());
+        TaskListingCache taskListingCache = new TaskListingCache(taskService, taskCodec, DataSize.ofMegabytes(64));
+        ReflectionTestUtils.setField(taskController, "taskMetrics", new TaskMetrics(new SimpleMeterRegistry(), taskService, userService, taskListingCache));
+        ReflectionTestUtils.setField(taskController, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(taskController, "taskListingCache", taskListingCache);
+        ReflectionTestUtils.setField(taskController, "taskCodec", taskCodec);
+        ReflectionTestUtils.setField(taskController, "taskChangeFeed", new TaskChangeFeed(taskService, 1000, 256, Duration.ofMinutes(30), 1));
+        ReflectionTestUtils.setField(taskController, "taskWritePipeline", new TaskWritePipeline(taskService, false, 0, 0, Duration.ZERO));
+        userId = BenchmarkData.userIdFor(role);
+
+        // Tâches de la compagnie 0 assignées à user0 : autorisées pour les trois rôles
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(BenchmarkData.task(i * companyCount * BenchmarkData.USERS_PER_COMPANY, companyCount));
+        }
+    }
+
+    @Benchmark
+    public Object getAllTasks() throws IOException {
+        return taskController.getAllTasks(userId, null, null, null, null);
+    }
+
+    // Une écriture dans le périmètre avant chaque lecture : la liste en cache est invalidée et resérialisée
+    @Benchmark
+    public Object getAllTasksAfterWrite() throws IOException {
+        taskService.updateTask(batch.get(0));
+        return taskController.getAllTasks(userId, null, null, null, null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createTaskSingle() {
+        for (Task task : batch) {
+            taskController.createTask(userId, task);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Object createTasksBatch() {
+        return taskController.createTasks(userId, batch);
+    }
+}
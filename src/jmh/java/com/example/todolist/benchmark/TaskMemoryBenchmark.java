@@ -0,0 +1,83 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.service.TaskService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Empreinte mémoire par tâche, mesurée sur le tas après GC (compteur bytesPerTask du rapport JMH) :
+ * une map de POJO Task (la représentation exposée par l'API) et TaskService complet, index compris.
+ * Pour 10 millions de tâches : -p taskCount=10000000 -jvmArgs -Xmx16g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskMemoryBenchmark {
+
+    @Param({"1000000"})
+    public int taskCount;
+
+    @Param({"1000"})
+    public int companyCount;
+
+    // Garde le jeu de données vivant jusqu'à la fin de la mesure
+    private Object retained;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerTask;
+    }
+
+    @TearDown(Level.Iteration)
+    public void release() {
+        retained = null;
+    }
+
+    @Benchmark
+    public void taskMap(Footprint footprint) {
+        long before = usedHeap();
+        Map<String, Task> tasks = new ConcurrentHashMap<>();
+        for (int i = 0; i < taskCount; i++) {
+            Task task = BenchmarkData.task(i, companyCount);
+            tasks.put(task.getId(), task);
+        }
+        retained = tasks;
+        footprint.bytesPerTask = (usedHeap() - before) / taskCount;
+    }
+
+    @Benchmark
+    public void taskService(Footprint footprint) {
+        long before = usedHeap();
+        TaskService taskService = BenchmarkData.taskService(taskCount, companyCount);
+        retained = taskService;
+        footprint.bytesPerTask = (usedHeap() - before) / taskCount;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemins chauds de TaskService. Le nombre de threads se règle avec l'option JMH -t,
+ * et les tailles plus grandes avec -p taskCount=10000000 (prévoir -jvmArgs -Xmx16g).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int taskCount;
+
+    @Param({"10", "1000"})
+    public int companyCount;
+
+    private TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        taskService = BenchmarkData.taskService(taskCount, companyCount);
+    }
+
+    @Benchmark
+    public Object getTaskById() {
+        return taskService.getTaskById(BenchmarkData.taskId(ThreadLocalRandom.current().nextInt(taskCount)));
+    }
+
+    // Réécrit une tâche existante : la taille du jeu de données reste constante
+    @Benchmark
+    public void addTask() {
+        taskService.addTask(BenchmarkData.task(ThreadLocalRandom.current().nextInt(taskCount), companyCount));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 10)
+    public void getAllTasks(Blackhole blackhole) {
+        taskService.streamAllTasks(null).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void getTasksByCompanyId(Blackhole blackhole) {
+        taskService.getTasksByCompanyId("company0").forEach(blackhole::consume);
+    }
+}
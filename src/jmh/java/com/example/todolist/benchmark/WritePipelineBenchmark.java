@@ -0,0 +1,101 @@
+package com.example.todolist.benchmark;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.persistence.FileJournal;
+import com.example.todolist.service.TaskService;
+import com.example.todolist.service.TaskWritePipeline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Écritures durables (journal synchrone) : chemin synchrone contre pipeline d'écriture, débit et latence sous concurrence
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class WritePipelineBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int IN_FLIGHT = 64;
+
+    @Param({"sync", "pipeline"})
+    public String mode;
+
+    private Path directory;
+    private FileJournal<Task> journal;
+    private TaskService taskService;
+    private TaskWritePipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("pipeline-bench");
+        journal = new FileJournal<>(directory, "tasks", Task.class, OBJECT_MAPPER, true, 5, 0);
+        taskService = new TaskService(journal);
+        pipeline = new TaskWritePipeline(taskService, mode.equals("pipeline"), 4096, 256, Duration.ofSeconds(5));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        pipeline.close();
+        journal.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // Chaque appel attend son acquittement, comme une requête HTTP
+    @Benchmark
+    public Boolean addTask() {
+        Task task = BenchmarkData.task(ThreadLocalRandom.current().nextInt(100_000), 1000);
+        CompletableFuture<Boolean> write;
+        while ((write = pipeline.put("user0", task)) == null) {
+            Thread.onSpinWait();
+        }
+        return write.join();
+    }
+
+    // Même budget de threads, mais IN_FLIGHT écritures en cours par thread : le cas d'un contrôleur qui libère
+    // son thread pendant l'attente (CompletableFuture). En mode synchrone, les écritures restent séquentielles
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    public void addTasksInFlight() {
+        CompletableFuture<?>[] writes = new CompletableFuture<?>[IN_FLIGHT];
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            Task task = BenchmarkData.task(ThreadLocalRandom.current().nextInt(100_000), 1000);
+            CompletableFuture<Boolean> write;
+            while ((write = pipeline.put("user0", task)) == null) {
+                Thread.onSpinWait();
+            }
+            writes[i] = write;
+        }
+        CompletableFuture.allOf(writes).join();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.todolist.cache;
+
+import com.example.todolist.codec.TaskCodec;
+import com.example.todolist.codec.WireFormat;
+import com.example.todolist.model.Task;
+import com.example.todolist.security.TaskAccessPolicy;
+import com.example.todolist.service.TaskService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache des listes de tâches déjà sérialisées, par périmètre (toutes les tâches, une compagnie, un assigné)
+ * et par format (JSON, CBOR) : tous les administrateurs d'une même compagnie partagent la même entrée.
+ * <p>
+ * Chaque entrée porte la version du périmètre ({@link TaskAccessPolicy#visibleVersion(TaskService)}) au moment de la
+ * sérialisation ; toute écriture de {@link TaskService} dans le périmètre avance cette version et invalide donc l'entrée,
+ * sans travail supplémentaire sur le chemin d'écriture. Le cache est borné en octets, avec éviction des entrées les moins utiles.
+ */
+@Component
+public class TaskListingCache {
+
+    private final TaskService taskService;
+    private final TaskCodec taskCodec;
+    private final Cache<String, CachedListing> listings;
+
+    // Sérialisations en cours, par clé
+    private final Map<String, CompletableFuture<CachedListing>> serializations = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TaskListingCache(TaskService taskService, TaskCodec taskCodec,
+                            @Value("${todolist.listing-cache.maximum-size:64MB}") DataSize maximumSize) {
+        this.taskService = taskService;
+        this.taskCodec = taskCodec;
+        this.listings = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String key, CachedListing listing) -> listing.bytes.length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Méthode pour obtenir, sérialisées, toutes les tâches visibles d'un utilisateur.
+     * Une seule sérialisation a lieu par périmètre, format et version, même sous des requêtes concurrentes :
+     * les appelants d'une même clé attendent celle en cours, sans bloquer les autres clés.
+     *
+     * @param policy  Droits de l'utilisateur.
+     * @param version Version du périmètre, lue par l'appelant avant cet appel (et utilisée pour son ETag).
+     * @param format  Format de la réponse.
+     * @return Liste des tâches visibles encodée ; le tableau d'octets est partagé et ne doit pas être modifié.
+     */
+    public byte[] getVisibleTasks(TaskAccessPolicy policy, long version, WireFormat format) {
+        String key = policy.getScopeKey() + "|" + format;
+        while (true) {
+            // Une entrée plus récente que la version lue reste valable : l'ETag de l'appelant sera seulement plus ancien que les données
+            CachedListing cached = listings.getIfPresent(key);
+            if (cached != null && cached.version >= version) {
+                hits.increment();
+                return cached.bytes;
+            }
+            CompletableFuture<CachedListing> serialization = new CompletableFuture<>();
+            CompletableFuture<CachedListing> running = serializations.putIfAbsent(key, serialization);
+            if (running == null) {
+                misses.increment();
+                return serialize(key, policy, version, format, serialization).bytes;
+            }
+            CachedListing listing = await(running);
+            if (listing.version >= version) {
+                hits.increment();
+                return listing.bytes;
+            }
+            // La sérialisation attendue portait sur une version plus ancienne : on recommence
+        }
+    }
+
+    // Statistiques du cache (succès, échecs, évictions)
+    public CacheStats getCacheStats() {
+        CacheStats stats = listings.stats();
+        return CacheStats.of(hits.sum(), misses.sum(), 0, 0, 0, stats.evictionCount(), stats.evictionWeight());
+    }
+
+    // Taille occupée par les entrées, en octets
+    public long getWeightedSize() {
+        return listings.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    /**
+     * Méthode privée qui sérialise la liste hors de tout verrou du cache, puis l'insère ; une entrée plus récente,
+     * insérée entre-temps, est conservée. Les appelants qui attendent la même clé reçoivent le résultat.
+     */
+    private CachedListing serialize(String key, TaskAccessPolicy policy, long version, WireFormat format,
+                                    CompletableFuture<CachedListing> serialization) {
+        try {
+            List<Task> tasks = policy.listVisibleTasks(taskService, null);
+            CachedListing listing = new CachedListing(version, taskCodec.write(tasks, format));
+            listings.asMap().merge(key, listing, (cached, created) -> cached.version >= created.version ? cached : created);
+            serialization.complete(listing);
+            return listing;
+        } catch (JsonProcessingException e) {
+            UncheckedIOException failure = new UncheckedIOException(e);
+            serialization.completeExceptionally(failure);
+            throw failure;
+        } catch (RuntimeException | Error e) {
+            serialization.completeExceptionally(e);
+            throw e;
+        } finally {
+            serializations.remove(key, serialization);
+        }
+    }
+
+    private static CachedListing await(CompletableFuture<CachedListing> serialization) {
+        try {
+            return serialization.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static final class CachedListing {
+        private final long version;
+        private final byte[] bytes;
+
+        private CachedListing(long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+}
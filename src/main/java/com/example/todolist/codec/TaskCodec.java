@@ -0,0 +1,38 @@
+package com.example.todolist.codec;
+
+import com.example.todolist.tracing.RequestTrace;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Encode les réponses dans le format négocié. Le mapper CBOR n'est pas exposé comme bean :
+ * un second ObjectMapper dans le contexte désactiverait celui configuré par Spring Boot.
+ */
+@Component
+public class TaskCodec {
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    public TaskCodec(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    public byte[] write(Object value, WireFormat format) throws JsonProcessingException {
+        long start = RequestTrace.start();
+        byte[] bytes = mapperFor(format).writeValueAsBytes(value);
+        RequestTrace.end(RequestTrace.SERIALIZE, start);
+        if (value instanceof Collection<?> collection) {
+            RequestTrace.recordResultSize(collection.size());
+        }
+        return bytes;
+    }
+
+    public ObjectMapper mapperFor(WireFormat format) {
+        return format == WireFormat.CBOR ? cborMapper : jsonMapper;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.todolist.codec;
+
+import com.example.todolist.model.Task;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Désérialiseur écrit à la main pour {@link Task}, pendant de {@link TaskSerializer}.
+ * Les champs inconnus suivent la configuration du mapper (FAIL_ON_UNKNOWN_PROPERTIES), comme avec le désérialiseur par défaut.
+ * Les dates sont lues en ISO-8601 ou en millisecondes depuis l'epoch.
+ */
+public class TaskDeserializer extends StdDeserializer<Task> {
+
+    public TaskDeserializer() {
+        super(Task.class);
+    }
+
+    @Override
+    public Task deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            return (Task) context.handleUnexpectedToken(Task.class, parser);
+        }
+
+        Task task = new Task();
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "id" -> task.setId(readString(parser, context));
+                case "description" -> task.setDescription(readString(parser, context));
+                case "assignedToUserId" -> task.setAssignedToUserId(readString(parser, context));
+                case "companyId" -> task.setCompanyId(readString(parser, context));
+                case "version" -> task.setVersion(parser.currentToken() == JsonToken.VALUE_NULL ? 0 : parser.getValueAsLong());
+                case "expiresAt" -> task.setExpiresAt(readInstant(parser, context));
+                case "archivedAt" -> task.setArchivedAt(readInstant(parser, context));
+                default -> context.handleUnknownProperty(parser, this, Task.class, fieldName);
+            }
+        }
+        return task;
+    }
+
+    private static String readString(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            return (String) context.handleUnexpectedToken(String.class, parser);
+        }
+        return parser.getText();
+    }
+
+    private static Instant readInstant(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return Instant.ofEpochMilli(parser.getLongValue());
+        }
+        String text = readString(parser, context);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            throw context.weirdStringException(text, Instant.class, "expected an ISO-8601 instant");
+        }
+    }
+}
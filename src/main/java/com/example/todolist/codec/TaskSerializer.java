@@ -0,0 +1,54 @@
+package com.example.todolist.codec;
+
+import com.example.todolist.model.Task;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Sérialiseur écrit à la main pour {@link Task}, utilisé par tous les formats Jackson (JSON, CBOR) :
+ * les champs sont écrits directement, sans introspection ni accès par réflexion, et les noms de champs
+ * sont pré-encodés. Le document produit est identique à celui du sérialiseur de bean par défaut, à ceci près que
+ * les dates optionnelles (expiresAt, archivedAt) ne sont écrites que si elles sont renseignées, en ISO-8601.
+ */
+public class TaskSerializer extends StdSerializer<Task> {
+
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString DESCRIPTION = new SerializedString("description");
+    static final SerializedString ASSIGNED_TO_USER_ID = new SerializedString("assignedToUserId");
+    static final SerializedString COMPANY_ID = new SerializedString("companyId");
+    static final SerializedString VERSION = new SerializedString("version");
+    static final SerializedString EXPIRES_AT = new SerializedString("expiresAt");
+    static final SerializedString ARCHIVED_AT = new SerializedString("archivedAt");
+
+    public TaskSerializer() {
+        super(Task.class);
+    }
+
+    @Override
+    public void serialize(Task task, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(task, 5 + (task.getExpiresAt() != null ? 1 : 0) + (task.getArchivedAt() != null ? 1 : 0));
+        generator.writeFieldName(ID);
+        generator.writeString(task.getId());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(task.getDescription());
+        generator.writeFieldName(ASSIGNED_TO_USER_ID);
+        generator.writeString(task.getAssignedToUserId());
+        generator.writeFieldName(COMPANY_ID);
+        generator.writeString(task.getCompanyId());
+        generator.writeFieldName(VERSION);
+        generator.writeNumber(task.getVersion());
+        if (task.getExpiresAt() != null) {
+            generator.writeFieldName(EXPIRES_AT);
+            generator.writeString(task.getExpiresAt().toString());
+        }
+        if (task.getArchivedAt() != null) {
+            generator.writeFieldName(ARCHIVED_AT);
+            generator.writeString(task.getArchivedAt().toString());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.todolist.codec;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats de représentation des tâches : JSON par défaut, CBOR (binaire, RFC 8949) pour les consommateurs
+ * service à service qui l'annoncent dans l'en-tête Accept.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Choisit le format préféré par le client ; à qualité égale, ou si l'en-tête est absent ou invalide, JSON.
+     *
+     * @param accept Valeur de l'en-tête Accept, ou null.
+     * @return Format de la réponse.
+     */
+    public static WireFormat negotiate(String accept) {
+        if (accept == null) {
+            return JSON;
+        }
+        WireFormat best = JSON;
+        double bestQuality = -1;
+        try {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                for (WireFormat format : values()) {
+                    if (mediaType.includes(format.mediaType) && mediaType.getQualityValue() > bestQuality) {
+                        best = format;
+                        bestQuality = mediaType.getQualityValue();
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.todolist.config;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.model.User;
+import com.example.todolist.persistence.FileJournal;
+import com.example.todolist.persistence.Journal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@Configuration
+public class PersistenceConfig {
+
+    @Value("${todolist.persistence.enabled:false}")
+    private boolean enabled;
+
+    @Value("${todolist.persistence.directory:data}")
+    private Path directory;
+
+    @Value("${todolist.persistence.sync:true}")
+    private boolean sync;
+
+    @Value("${todolist.persistence.group-commit-interval-ms:5}")
+    private long groupCommitIntervalMs;
+
+    @Value("${todolist.persistence.snapshot-interval-ms:60000}")
+    private long snapshotIntervalMs;
+
+    @Bean(destroyMethod = "close")
+    public Journal<Task> taskJournal(ObjectMapper objectMapper) {
+        return journal("tasks", Task.class, objectMapper);
+    }
+
+    @Bean(destroyMethod = "close")
+    public Journal<User> userJournal(ObjectMapper objectMapper) {
+        return journal("users", User.class, objectMapper);
+    }
+
+    // Santé DOWN tant qu'un journal refuse les écritures après un échec d'écriture sur disque
+    @Bean
+    public HealthIndicator journalHealthIndicator(Journal<Task> taskJournal, Journal<User> userJournal) {
+        return () -> {
+            Health.Builder health = Health.up();
+            for (Map.Entry<String, Journal<?>> journal : Map.<String, Journal<?>>of("tasks", taskJournal, "users", userJournal).entrySet()) {
+                IOException failure = journal.getValue().getFailure();
+                if (failure != null) {
+                    health.down().withDetail(journal.getKey(), String.valueOf(failure.getMessage()));
+                }
+            }
+            return health.build();
+        };
+    }
+
+    private <T> Journal<T> journal(String name, Class<T> valueType, ObjectMapper objectMapper) {
+        if (!enabled) {
+            return Journal.noop();
+        }
+        return new FileJournal<>(directory, name, valueType, objectMapper, sync, groupCommitIntervalMs, snapshotIntervalMs);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todolist.config;
+
+import com.example.todolist.metrics.TaskMetricsInterceptor;
+import com.example.todolist.ratelimit.AdmissionControlInterceptor;
+import com.example.todolist.tracing.RequestTracingInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private TaskMetricsInterceptor taskMetricsInterceptor;
+
+    @Autowired
+    private AdmissionControlInterceptor admissionControlInterceptor;
+
+    @Autowired
+    private RequestTracingInterceptor requestTracingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Mesure en premier : les requêtes rejetées (429, 503) apparaissent aussi dans les métriques
+        registry.addInterceptor(taskMetricsInterceptor).addPathPatterns("/tasks/**");
+        registry.addInterceptor(requestTracingInterceptor).addPathPatterns("/tasks/**");
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/tasks/**");
+    }
+}
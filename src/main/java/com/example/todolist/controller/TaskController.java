@@ -1,29 +1,106 @@
 package com.example.todolist.controller;
 
-import com.example.todolist.model.Role;
+import com.example.todolist.cache.TaskListingCache;
+import com.example.todolist.codec.TaskCodec;
+import com.example.todolist.codec.WireFormat;
+import com.example.todolist.feed.TaskChangeFeed;
+import com.example.todolist.metrics.TaskMetrics;
+import com.example.todolist.model.BatchItemResult;
+import com.example.todolist.model.ImportResult;
 import com.example.todolist.model.Task;
+import com.example.todolist.model.TaskStats;
 import com.example.todolist.model.User;
+import com.example.todolist.persistence.JournalUnavailableException;
+import com.example.todolist.security.TaskAccessPolicy;
+import com.example.todolist.security.TaskPermissionEvaluator;
+import com.example.todolist.service.TaskLimitExceededException;
 import com.example.todolist.service.TaskService;
+import com.example.todolist.service.TaskWritePipeline;
 import com.example.todolist.service.UserService;
+import com.example.todolist.sharding.ShardRouter;
+import com.example.todolist.tracing.RequestTrace;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/tasks")
 public class TaskController {
 
+    static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_SEARCH_LIMIT = 1000;
+
+    // Nombre maximal de refus détaillés dans le résultat d'un import (les compteurs restent exacts)
+    static final int MAX_IMPORT_ERRORS = 100;
+
+    // Les écritures avec l'en-tête Prefer: respond-async passent par le pipeline d'écriture asynchrone
+    static final String RESPOND_ASYNC = "Prefer=respond-async";
+
+    static final String TASK_LIMIT_REACHED = "Company task limit reached.";
+
+    // Refus d'une tâche par lot ou importée dont la compagnie appartient à un autre nœud (mode partitionné)
+    static final String OTHER_SHARD = "Task belongs to a company owned by another shard.";
+
     @Autowired
     private TaskService taskService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TaskPermissionEvaluator permissionEvaluator;
+
+    @Autowired
+    private TaskMetrics taskMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
+    @Autowired
+    private TaskListingCache taskListingCache;
+
+    @Autowired
+    private TaskCodec taskCodec;
+
+    @Autowired
+    private TaskWritePipeline taskWritePipeline;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${todolist.import.batch-size:1000}")
+    private int importBatchSize;
+
     /**
      * Endpoint pour créer une nouvelle tâche.
      *
@@ -35,11 +112,12 @@ public class TaskController {
     public ResponseEntity<String> createTask(@RequestParam String userId, @RequestBody Task task) {
         Optional<User> optionalUser = userService.getUserById(userId);
         if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
-            if (canUserCreateTask(user, task)) {
+            TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+            if (policy.canCreate(task)) {
                 taskService.addTask(task);
                 return ResponseEntity.status(HttpStatus.CREATED).body("Task created successfully.");
             } else {
+                recordDenial(policy, "create");
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You do not have permission to create this task.");
             }
         } else {
@@ -48,74 +126,201 @@ public class TaskController {
     }
 
     /**
-     * Méthode privée pour vérifier si l'utilisateur a le droit de créer la tâche.
+     * Endpoint pour récupérer toutes les tâches accessibles pour un utilisateur.
+     * Sans {@code limit}, toutes les tâches sont renvoyées ; sinon une page au plus de {@code limit} tâches,
+     * triées par ID, et l'en-tête {@code X-Next-Cursor} indique le curseur de la page suivante s'il en reste.
+     * L'ETag dépend de la version du périmètre de l'utilisateur : avec {@code If-None-Match}, une liste inchangée
+     * est confirmée par un 304 sans lire ni sérialiser les tâches. La liste complète est servie depuis un cache
+     * de réponses déjà sérialisées, partagé par tous les utilisateurs du même périmètre.
+     * La réponse est en JSON, ou en CBOR si l'en-tête {@code Accept} le demande.
      *
-     * @param user Utilisateur qui tente de créer la tâche.
-     * @param task Tâche à créer.
-     * @return true si l'utilisateur a le droit, false sinon.
+     * @param userId      ID de l'utilisateur.
+     * @param limit       Nombre maximal de tâches à renvoyer (optionnel).
+     * @param cursor      ID de la dernière tâche de la page précédente (optionnel).
+     * @param ifNoneMatch ETag d'une réponse précédente (optionnel).
+     * @param accept      Formats acceptés par le client (optionnel).
+     * @return Liste des tâches accessibles, ou 304 si elle n'a pas changé.
+     * @throws IOException si la sérialisation d'une page échoue.
      */
-    private boolean canUserCreateTask(User user, Task task) {
-        Role role = user.getRole();
+    @GetMapping
+    public ResponseEntity<byte[]> getAllTasks(@RequestParam String userId,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws IOException {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        if (limit != null && limit <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
 
-        if (role == Role.SUPER_USER) {
-            // Super User peut créer n'importe quelle tâche
-            return true;
-        } else if (role == Role.COMPANY_ADMIN) {
-            // Company-Admin peut créer des tâches pour sa compagnie
-            return task.getCompanyId().equals(user.getCompanyId());
-        } else if (role == Role.STANDARD) {
-            // Standard User peut créer des tâches assignées à lui-même dans sa compagnie
-            return task.getAssignedToUserId().equals(user.getId()) && task.getCompanyId().equals(user.getCompanyId());
-        } else {
-            return false;
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+        WireFormat format = WireFormat.negotiate(accept);
+        taskWritePipeline.awaitWrites(userId);
+
+        // La version est lue avant les tâches : une écriture concurrente ne peut que rendre l'ETag plus ancien que les données
+        long version = policy.visibleVersion(taskService);
+        String eTag = listingETag(policy, version, format);
+        if (eTagMatches(ifNoneMatch, eTag, true)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT);
+
+        if (limit == null && cursor == null) {
+            return response.body(taskListingCache.getVisibleTasks(policy, version, format));
         }
+
+        if (limit == null) {
+            return response.body(taskCodec.write(policy.listVisibleTasks(taskService, cursor), format));
+        }
+
+        // Une tâche de plus que demandé pour savoir s'il reste une page suivante
+        long scanStart = RequestTrace.start();
+        List<Task> tasks = policy.streamVisibleTasks(taskService, cursor).limit(limit + 1L).collect(Collectors.toList());
+        RequestTrace.end(RequestTrace.SCAN, scanStart);
+        if (tasks.size() <= limit) {
+            return response.body(taskCodec.write(tasks, format));
+        }
+        List<Task> page = tasks.subList(0, limit);
+        return response
+                .header(NEXT_CURSOR_HEADER, page.get(limit - 1).getId())
+                .body(taskCodec.write(page, format));
     }
 
     /**
-     * Endpoint pour récupérer toutes les tâches accessibles pour un utilisateur.
+     * Endpoint pour récupérer les tâches accessibles en NDJSON (une tâche JSON par ligne).
+     * Les tâches sont écrites dans la réponse au fil du parcours, sans construire la liste en mémoire.
      *
      * @param userId ID de l'utilisateur.
-     * @return Liste des tâches accessibles.
+     * @param limit  Nombre maximal de tâches à renvoyer (optionnel).
+     * @param cursor ID de la dernière tâche déjà reçue (optionnel).
+     * @return Corps de réponse écrit en flux.
      */
-    @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks(@RequestParam String userId) {
+    @GetMapping(produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks(@RequestParam String userId,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) String cursor) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (limit != null && limit <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+        taskWritePipeline.awaitWrites(userId);
+
+        RequestTrace trace = RequestTrace.current();
+        StreamingResponseBody body = outputStream -> {
+            Stream<Task> visibleTasks = policy.streamVisibleTasks(taskService, cursor);
+            if (limit != null) {
+                visibleTasks = visibleTasks.limit(limit);
+            }
+            writeNdjson(visibleTasks, outputStream, trace);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(body);
+    }
+
+    /**
+     * Endpoint de recherche plein texte dans la description des tâches accessibles.
+     *
+     * @param userId ID de l'utilisateur.
+     * @param q      Texte recherché ; un mot terminé par {@code *} est recherché comme préfixe.
+     * @param limit  Nombre maximal de résultats (20 par défaut).
+     * @return Tâches accessibles, de la plus pertinente à la moins pertinente.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Task>> searchTasks(@RequestParam String userId,
+                                                  @RequestParam String q,
+                                                  @RequestParam(defaultValue = "20") int limit) {
         Optional<User> optionalUser = userService.getUserById(userId);
         if (!optionalUser.isPresent()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
+        if (q.isBlank() || limit <= 0 || limit > MAX_SEARCH_LIMIT) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
 
-        User user = optionalUser.get();
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+        taskWritePipeline.awaitWrites(userId);
 
-        List<Task> tasks = taskService.getAllTasks().stream()
-                .filter(task -> {
-                    if (user.getRole() == Role.SUPER_USER) {
-                        return true;
-                    } else if (user.getRole() == Role.COMPANY_ADMIN) {
-                        return task.getCompanyId().equals(user.getCompanyId());
-                    } else { // STANDARD
-                        return task.getAssignedToUserId().equals(userId);
-                    }
-                })
-                .collect(Collectors.toList());
+        List<Task> results = taskService.searchTasks(q, policy::canAccess, limit);
+        RequestTrace.recordResultSize(results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Endpoint pour compter les tâches accessibles par compagnie et par utilisateur assigné.
+     * Les nombres sont lus dans des compteurs tenus à jour à chaque écriture, sans parcourir les tâches.
+     *
+     * @param userId ID de l'utilisateur.
+     * @return Total et répartition des tâches accessibles.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStats> getTaskStats(@RequestParam String userId) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+        taskWritePipeline.awaitWrites(userId);
 
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(policy.visibleStats(taskService));
     }
 
     /**
-     * Endpoint pour récupérer une tâche spécifique.
+     * Endpoint pour suivre en continu (Server-Sent Events) les créations, mises à jour et suppressions
+     * des tâches accessibles, au lieu d'interroger périodiquement GET /tasks.
      *
      * @param userId ID de l'utilisateur.
-     * @param id     ID de la tâche.
-     * @return La tâche si accessible.
+     * @return Flux d'événements CREATED, UPDATED et DELETED, ou 503 si le nombre maximal d'abonnés est atteint.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTaskChanges(@RequestParam String userId) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+
+        SseEmitter emitter = taskChangeFeed.subscribe(policy);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Endpoint pour récupérer une tâche spécifique.
+     *
+     * L'ETag est la version de la tâche ; avec {@code If-None-Match}, une tâche inchangée est confirmée par un 304.
+     *
+     * @param userId      ID de l'utilisateur.
+     * @param id          ID de la tâche.
+     * @param ifNoneMatch ETag d'une réponse précédente (optionnel).
+     * @return La tâche si accessible, ou 304 si elle n'a pas changé.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Task> getTaskById(@RequestParam String userId, @PathVariable String id) {
+    public ResponseEntity<Task> getTaskById(@RequestParam String userId, @PathVariable String id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Optional<User> optionalUser = userService.getUserById(userId);
         if (!optionalUser.isPresent()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
 
-        User user = optionalUser.get();
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+        taskWritePipeline.awaitWrites(userId);
 
         Optional<Task> optionalTask = taskService.getTaskById(id);
         if (!optionalTask.isPresent()) {
@@ -124,9 +329,14 @@ public class TaskController {
 
         Task task = optionalTask.get();
 
-        if (canUserAccessTask(user, task)) {
-            return ResponseEntity.ok(task);
+        if (policy.canAccess(task)) {
+            String eTag = taskETag(task);
+            if (eTagMatches(ifNoneMatch, eTag, true)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(task);
         } else {
+            recordDenial(policy, "read");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
         }
     }
@@ -136,36 +346,30 @@ public class TaskController {
      *
      * @param userId ID de l'utilisateur qui effectue la requête.
      * @param taskId ID de la tâche à mettre à jour.
-     * @param task   Objet Task contenant les nouvelles données.
+     * @param task    Objet Task contenant les nouvelles données.
+     * @param ifMatch ETag de la version lue par le client (optionnel) : la mise à jour est refusée (412) si la tâche a changé depuis.
      * @return ResponseEntity avec le statut approprié.
      */
     @PutMapping("/{taskId}")
-    public ResponseEntity<String> updateTask(@RequestParam String userId, @PathVariable String taskId, @RequestBody Task task) {
+    public ResponseEntity<String> updateTask(@RequestParam String userId, @PathVariable String taskId, @RequestBody Task task,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Optional<User> optionalUser = userService.getUserById(userId);
         if (!optionalUser.isPresent()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
         }
 
-        User user = optionalUser.get();
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
 
-        Optional<Task> optionalExistingTask = taskService.getTaskById(taskId);
-        if (!optionalExistingTask.isPresent()) {
+        HttpStatus status = applyUpdate(policy, taskId, task, ifMatch);
+        if (status == HttpStatus.NOT_FOUND) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Task not found.");
-        }
-
-        Task existingTask = optionalExistingTask.get();
-
-        if (canUserUpdateTask(user, existingTask)) {
-            // Mettre à jour les informations de la tâche existante
-            existingTask.setDescription(task.getDescription());
-            existingTask.setAssignedToUserId(task.getAssignedToUserId());
-            existingTask.setCompanyId(task.getCompanyId());
-
-            taskService.updateTask(existingTask);
-            return ResponseEntity.ok("Task updated successfully.");
-        } else {
+        } else if (status == HttpStatus.FORBIDDEN) {
+            recordDenial(policy, "update");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You do not have permission to update this task.");
+        } else if (status == HttpStatus.PRECONDITION_FAILED) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Task was modified by another request.");
         }
+        return ResponseEntity.ok("Task updated successfully.");
     }
 
     /**
@@ -182,7 +386,7 @@ public class TaskController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
         }
 
-        User user = optionalUser.get();
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
 
         Optional<Task> optionalTask = taskService.getTaskById(taskId);
         if (!optionalTask.isPresent()) {
@@ -191,59 +395,502 @@ public class TaskController {
 
         Task task = optionalTask.get();
 
-        if (canUserDeleteTask(user, task)) {
+        if (policy.canDelete(task)) {
             taskService.deleteTask(taskId);
             return ResponseEntity.ok("Task deleted successfully.");
         } else {
+            recordDenial(policy, "delete");
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You do not have permission to delete this task.");
         }
     }
 
     /**
-     * Méthode privée pour vérifier si l'utilisateur a le droit d'accéder à la tâche.
+     * Endpoint pour créer une tâche via le pipeline d'écriture asynchrone (en-tête {@code Prefer: respond-async}).
+     * La réponse est envoyée une fois la tâche écrite, sans bloquer de thread de requête pendant l'attente.
      *
-     * @param user Utilisateur qui tente d'accéder à la tâche.
-     * @param task Tâche à accéder.
-     * @return true si l'utilisateur a le droit, false sinon.
+     * @param userId ID de l'utilisateur qui effectue la requête.
+     * @param task   Objet Task à créer.
+     * @return Réponse à venir, ou 503 si la file d'écriture est pleine.
      */
-    private boolean canUserAccessTask(User user, Task task) {
-        Role role = user.getRole();
+    @PostMapping(headers = RESPOND_ASYNC)
+    public CompletableFuture<ResponseEntity<String>> createTaskAsync(@RequestParam String userId, @RequestBody Task task) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found."));
+        }
 
-        if (role == Role.SUPER_USER) {
-            // Super User peut accéder à n'importe quelle tâche
-            return true;
-        } else if (role == Role.COMPANY_ADMIN) {
-            // Company-Admin peut accéder aux tâches de sa compagnie
-            return task.getCompanyId().equals(user.getCompanyId());
-        } else if (role == Role.STANDARD) {
-            // Standard User peut accéder uniquement à ses propres tâches
-            return task.getAssignedToUserId().equals(user.getId());
-        } else {
-            return false;
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+        if (!policy.canCreate(task)) {
+            recordDenial(policy, "create");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).body("You do not have permission to create this task."));
+        }
+
+        CompletableFuture<Boolean> write = taskWritePipeline.put(userId, task);
+        if (write == null) {
+            return CompletableFuture.completedFuture(writeQueueFull());
         }
+        return write.thenApply(created -> ResponseEntity.status(HttpStatus.CREATED).body("Task created successfully."));
     }
 
     /**
-     * Méthode privée pour vérifier si l'utilisateur a le droit de mettre à jour la tâche.
+     * Endpoint pour mettre à jour une tâche via le pipeline d'écriture asynchrone (en-tête {@code Prefer: respond-async}).
      *
-     * @param user Utilisateur qui tente de mettre à jour la tâche.
-     * @param task Tâche à mettre à jour.
-     * @return true si l'utilisateur a le droit, false sinon.
+     * @param userId  ID de l'utilisateur qui effectue la requête.
+     * @param taskId  ID de la tâche à mettre à jour.
+     * @param task    Objet Task contenant les nouvelles données.
+     * @param ifMatch ETag de la version lue par le client (optionnel).
+     * @return Réponse à venir, ou 503 si la file d'écriture est pleine.
      */
-    private boolean canUserUpdateTask(User user, Task task) {
-        // La logique est la même que pour l'accès
-        return canUserAccessTask(user, task);
+    @PutMapping(path = "/{taskId}", headers = RESPOND_ASYNC)
+    public CompletableFuture<ResponseEntity<String>> updateTaskAsync(@RequestParam String userId, @PathVariable String taskId, @RequestBody Task task,
+                                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found."));
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+
+        return applyUpdateAsync(policy, taskId, task, ifMatch).thenApply(status -> {
+            if (status == HttpStatus.NOT_FOUND) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Task not found.");
+            } else if (status == HttpStatus.FORBIDDEN) {
+                recordDenial(policy, "update");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You do not have permission to update this task.");
+            } else if (status == HttpStatus.PRECONDITION_FAILED) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body("Task was modified by another request.");
+            } else if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+                return writeQueueFull();
+            }
+            return ResponseEntity.ok("Task updated successfully.");
+        });
+    }
+
+    /**
+     * Endpoint pour supprimer une tâche via le pipeline d'écriture asynchrone (en-tête {@code Prefer: respond-async}).
+     *
+     * @param userId ID de l'utilisateur qui effectue la requête.
+     * @param taskId ID de la tâche à supprimer.
+     * @return Réponse à venir, ou 503 si la file d'écriture est pleine.
+     */
+    @DeleteMapping(path = "/{taskId}", headers = RESPOND_ASYNC)
+    public CompletableFuture<ResponseEntity<String>> deleteTaskAsync(@RequestParam String userId, @PathVariable String taskId) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found."));
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+
+        Optional<Task> optionalTask = taskService.getTaskById(taskId);
+        if (!optionalTask.isPresent()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Task not found."));
+        }
+        if (!policy.canDelete(optionalTask.get())) {
+            recordDenial(policy, "delete");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).body("You do not have permission to delete this task."));
+        }
+
+        CompletableFuture<Boolean> write = taskWritePipeline.delete(userId, taskId);
+        if (write == null) {
+            return CompletableFuture.completedFuture(writeQueueFull());
+        }
+        return write.thenApply(deleted -> ResponseEntity.ok("Task deleted successfully."));
     }
 
     /**
-     * Méthode privée pour vérifier si l'utilisateur a le droit de supprimer la tâche.
+     * Endpoint pour créer plusieurs tâches en une requête.
+     * L'utilisateur est résolu une seule fois et les tâches autorisées sont ajoutées en un seul passage.
+     * En mode partitionné, les tâches des compagnies d'autres nœuds sont refusées (409), comme à l'import.
      *
-     * @param user Utilisateur qui tente de supprimer la tâche.
-     * @param task Tâche à supprimer.
-     * @return true si l'utilisateur a le droit, false sinon.
+     * @param userId ID de l'utilisateur qui effectue la requête.
+     * @param tasks  Tâches à créer.
+     * @return Statut de chaque tâche, dans l'ordre de la requête.
      */
-    private boolean canUserDeleteTask(User user, Task task) {
-        // La logique est la même que pour l'accès
-        return canUserAccessTask(user, task);
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createTasks(@RequestParam String userId, @RequestBody List<Task> tasks) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        List<Task> allowedTasks = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task == null || task.getId() == null) {
+                results.add(new BatchItemResult(null, HttpStatus.BAD_REQUEST.value(), "Task id is required."));
+            } else if (!policy.canCreate(task)) {
+                recordDenial(policy, "create");
+                results.add(new BatchItemResult(task.getId(), HttpStatus.FORBIDDEN.value(), "You do not have permission to create this task."));
+            } else if (ownedByOtherShard(task)) {
+                results.add(new BatchItemResult(task.getId(), HttpStatus.CONFLICT.value(), OTHER_SHARD));
+            } else {
+                allowedTasks.add(task);
+                results.add(new BatchItemResult(task.getId(), HttpStatus.CREATED.value(), "Task created successfully."));
+            }
+        }
+        Set<String> refusedTaskIds = new HashSet<>(taskService.addTasks(allowedTasks));
+        if (!refusedTaskIds.isEmpty()) {
+            results.replaceAll(result -> result.getStatus() == HttpStatus.CREATED.value() && refusedTaskIds.contains(result.getId())
+                    ? new BatchItemResult(result.getId(), HttpStatus.INSUFFICIENT_STORAGE.value(), TASK_LIMIT_REACHED)
+                    : result);
+        }
+
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Endpoint pour mettre à jour plusieurs tâches en une requête.
+     * En mode partitionné, une tâche ne peut pas rejoindre une compagnie d'un autre nœud (409).
+     *
+     * @param userId ID de l'utilisateur qui effectue la requête.
+     * @param tasks  Tâches contenant les nouvelles données, identifiées par leur ID.
+     * @return Statut de chaque tâche, dans l'ordre de la requête.
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateTasks(@RequestParam String userId, @RequestBody List<Task> tasks) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task == null || task.getId() == null) {
+                results.add(new BatchItemResult(null, HttpStatus.BAD_REQUEST.value(), "Task id is required."));
+                continue;
+            }
+            if (ownedByOtherShard(task)) {
+                results.add(new BatchItemResult(task.getId(), HttpStatus.CONFLICT.value(), OTHER_SHARD));
+                continue;
+            }
+            HttpStatus status;
+            try {
+                status = applyUpdate(policy, task.getId(), task, null);
+            } catch (TaskLimitExceededException e) {
+                results.add(new BatchItemResult(task.getId(), HttpStatus.INSUFFICIENT_STORAGE.value(), TASK_LIMIT_REACHED));
+                continue;
+            }
+            if (status == HttpStatus.NOT_FOUND) {
+                results.add(new BatchItemResult(task.getId(), status.value(), "Task not found."));
+            } else if (status == HttpStatus.FORBIDDEN) {
+                recordDenial(policy, "update");
+                results.add(new BatchItemResult(task.getId(), status.value(), "You do not have permission to update this task."));
+            } else {
+                results.add(new BatchItemResult(task.getId(), status.value(), "Task updated successfully."));
+            }
+        }
+
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Endpoint pour supprimer plusieurs tâches en une requête.
+     *
+     * @param userId  ID de l'utilisateur qui effectue la requête.
+     * @param taskIds IDs des tâches à supprimer.
+     * @return Statut de chaque tâche, dans l'ordre de la requête.
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteTasks(@RequestParam String userId, @RequestBody List<String> taskIds) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+
+        List<BatchItemResult> results = new ArrayList<>(taskIds.size());
+        List<String> allowedTaskIds = new ArrayList<>(taskIds.size());
+        for (String taskId : taskIds) {
+            if (taskId == null) {
+                results.add(new BatchItemResult(null, HttpStatus.BAD_REQUEST.value(), "Task id is required."));
+                continue;
+            }
+            Optional<Task> optionalTask = taskService.getTaskById(taskId);
+            if (!optionalTask.isPresent()) {
+                results.add(new BatchItemResult(taskId, HttpStatus.NOT_FOUND.value(), "Task not found."));
+            } else if (policy.canDelete(optionalTask.get())) {
+                allowedTaskIds.add(taskId);
+                results.add(new BatchItemResult(taskId, HttpStatus.OK.value(), "Task deleted successfully."));
+            } else {
+                recordDenial(policy, "delete");
+                results.add(new BatchItemResult(taskId, HttpStatus.FORBIDDEN.value(), "You do not have permission to delete this task."));
+            }
+        }
+        taskService.deleteTasks(allowedTaskIds);
+
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Endpoint pour importer des tâches en flux, en NDJSON ou sous forme de tableau JSON.
+     * Le corps est lu tâche par tâche et les tâches acceptées sont insérées par lots : la mémoire utilisée
+     * ne dépend pas de la taille du fichier. Chaque tâche est validée comme une création.
+     * L'import n'est pas transactionnel : si le corps est invalide, les tâches déjà lues restent importées.
+     *
+     * @param userId ID de l'utilisateur qui effectue la requête.
+     * @param body   Corps de la requête, lu en flux.
+     * @return Nombre de tâches importées et refusées, avec le détail des premiers refus ; 400 si le corps est invalide.
+     * @throws IOException si la lecture du corps échoue.
+     */
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON_MEDIA_TYPE})
+    public ResponseEntity<ImportResult> importTasks(@RequestParam String userId, InputStream body) throws IOException {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+
+        ImportResult result = new ImportResult();
+        List<Task> batch = new ArrayList<>(importBatchSize);
+        HttpStatus status = HttpStatus.OK;
+        // Un tableau JSON à la racine est déroulé : ses éléments sont lus un par un, comme les lignes NDJSON
+        try (MappingIterator<Task> tasks = objectMapper.readerFor(Task.class).readValues(body)) {
+            while (tasks.hasNextValue()) {
+                Task task = tasks.nextValue();
+                if (task == null || task.getId() == null) {
+                    rejectImport(result, null, HttpStatus.BAD_REQUEST, "Task id is required.");
+                } else if (!policy.canCreate(task)) {
+                    recordDenial(policy, "create");
+                    rejectImport(result, task.getId(), HttpStatus.FORBIDDEN, "You do not have permission to create this task.");
+                } else if (ownedByOtherShard(task)) {
+                    rejectImport(result, task.getId(), HttpStatus.CONFLICT, OTHER_SHARD);
+                } else {
+                    batch.add(task);
+                    if (batch.size() >= importBatchSize) {
+                        importBatch(batch, result);
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            status = HttpStatus.BAD_REQUEST;
+            JsonLocation location = e.getLocation();
+            String position = location != null ? " at line " + location.getLineNr() : "";
+            result.getErrors().add(new BatchItemResult(null, HttpStatus.BAD_REQUEST.value(), "Malformed input" + position + "."));
+        }
+        importBatch(batch, result);
+
+        return ResponseEntity.status(status).body(result);
+    }
+
+    /**
+     * Endpoint pour exporter les tâches accessibles en NDJSON, sous forme de fichier à télécharger.
+     * Les tâches sont écrites dans la réponse au fil du parcours, sans construire la liste en mémoire.
+     *
+     * @param userId ID de l'utilisateur.
+     * @param cursor ID de la dernière tâche déjà exportée, pour reprendre un export interrompu (optionnel).
+     * @return Corps de réponse écrit en flux.
+     */
+    @GetMapping(path = "/export", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam String userId,
+                                                             @RequestParam(required = false) String cursor) {
+        Optional<User> optionalUser = userService.getUserById(userId);
+        if (!optionalUser.isPresent()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+        taskWritePipeline.awaitWrites(userId);
+
+        RequestTrace trace = RequestTrace.current();
+        StreamingResponseBody body = outputStream -> writeNdjson(policy.streamVisibleTasks(taskService, cursor), outputStream, trace);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("tasks.ndjson").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Méthode privée qui applique une mise à jour : lecture, vérification puis remplacement atomique,
+     * en recommençant si une écriture concurrente est passée entre-temps.
+     *
+     * @param policy Droits de l'utilisateur qui effectue la mise à jour.
+     * @param taskId ID de la tâche à mettre à jour.
+     * @param task    Objet Task contenant les nouvelles données.
+     * @param ifMatch En-tête If-Match, ou null pour ne pas vérifier la version.
+     * @return OK, NOT_FOUND, FORBIDDEN ou PRECONDITION_FAILED.
+     */
+    private HttpStatus applyUpdate(TaskAccessPolicy policy, String taskId, Task task, String ifMatch) {
+        while (true) {
+            Optional<Task> optionalExistingTask = taskService.getTaskById(taskId);
+            if (!optionalExistingTask.isPresent()) {
+                return HttpStatus.NOT_FOUND;
+            }
+
+            Task existingTask = optionalExistingTask.get();
+
+            if (!policy.canUpdate(existingTask)) {
+                return HttpStatus.FORBIDDEN;
+            }
+
+            // Vérifiée sur la version que replaceTask() exige d'être toujours stockée : pas de fenêtre entre contrôle et écriture
+            if (ifMatch != null && !eTagMatches(ifMatch, taskETag(existingTask), false)) {
+                return HttpStatus.PRECONDITION_FAILED;
+            }
+
+            // Nouvelle instance : la tâche stockée n'est jamais modifiée en place
+            Task updatedTask = new Task(existingTask.getId(), task.getDescription(), task.getAssignedToUserId(), task.getCompanyId());
+            updatedTask.setExpiresAt(task.getExpiresAt());
+
+            if (taskService.replaceTask(existingTask, updatedTask)) {
+                return HttpStatus.OK;
+            }
+        }
+    }
+
+    /**
+     * Méthode privée équivalente à applyUpdate, dont le remplacement passe par le pipeline d'écriture :
+     * si une écriture concurrente est passée entre la lecture et le remplacement, la tâche est relue et la mise à jour resoumise.
+     *
+     * @return OK, NOT_FOUND, FORBIDDEN, PRECONDITION_FAILED, ou SERVICE_UNAVAILABLE si la file d'écriture est pleine.
+     */
+    private CompletableFuture<HttpStatus> applyUpdateAsync(TaskAccessPolicy policy, String taskId, Task task, String ifMatch) {
+        Optional<Task> optionalExistingTask = taskService.getTaskById(taskId);
+        if (!optionalExistingTask.isPresent()) {
+            return CompletableFuture.completedFuture(HttpStatus.NOT_FOUND);
+        }
+
+        Task existingTask = optionalExistingTask.get();
+
+        if (!policy.canUpdate(existingTask)) {
+            return CompletableFuture.completedFuture(HttpStatus.FORBIDDEN);
+        }
+        if (ifMatch != null && !eTagMatches(ifMatch, taskETag(existingTask), false)) {
+            return CompletableFuture.completedFuture(HttpStatus.PRECONDITION_FAILED);
+        }
+
+        Task updatedTask = new Task(existingTask.getId(), task.getDescription(), task.getAssignedToUserId(), task.getCompanyId());
+        updatedTask.setExpiresAt(task.getExpiresAt());
+
+        CompletableFuture<Boolean> write = taskWritePipeline.replace(policy.getUserId(), existingTask, updatedTask);
+        if (write == null) {
+            return CompletableFuture.completedFuture(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return write.thenCompose(replaced -> replaced
+                ? CompletableFuture.completedFuture(HttpStatus.OK)
+                : applyUpdateAsync(policy, taskId, task, ifMatch));
+    }
+
+    /**
+     * Gestionnaire des écritures refusées parce que la compagnie de la tâche a atteint son nombre maximal de tâches
+     * (y compris les écritures asynchrones, dont l'exception est transmise par leur CompletableFuture).
+     *
+     * @return 507 Insufficient Storage.
+     */
+    @ExceptionHandler(TaskLimitExceededException.class)
+    public ResponseEntity<String> taskLimitExceeded(TaskLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).body(TASK_LIMIT_REACHED);
+    }
+
+    /**
+     * Gestionnaire des écritures refusées parce que le journal n'arrive plus à écrire sur disque : rien n'a été écrit,
+     * le client peut réessayer une fois le journal rétabli.
+     *
+     * @return 503 Service Unavailable.
+     */
+    @ExceptionHandler(JournalUnavailableException.class)
+    public ResponseEntity<String> journalUnavailable(JournalUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Journal is unavailable.");
+    }
+
+    // En mode partitionné, une tâche d'une compagnie d'un autre nœud n'est jamais écrite ici
+    private boolean ownedByOtherShard(Task task) {
+        return shardRouter.isEnabled() && !shardRouter.isLocal(task.getCompanyId());
+    }
+
+    // Réponse d'une écriture refusée faute de place dans la file : le client peut réessayer
+    private static ResponseEntity<String> writeQueueFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Write queue is full.");
+    }
+
+    // ETag d'une tâche : sa version
+    private static String taskETag(Task task) {
+        return "\"" + task.getVersion() + "\"";
+    }
+
+    // ETag d'une liste : périmètre de l'utilisateur, version de ce périmètre et format (une représentation par format)
+    private static String listingETag(TaskAccessPolicy policy, long version, WireFormat format) {
+        String suffix = format == WireFormat.JSON ? "" : "-" + format.name().toLowerCase(Locale.ROOT);
+        return "\"" + Integer.toHexString(policy.getScopeKey().hashCode()) + "-" + version + suffix + "\"";
+    }
+
+    /**
+     * Méthode privée qui compare un en-tête If-None-Match ou If-Match (liste d'ETags, ou *) à l'ETag courant.
+     *
+     * @param header         Valeur de l'en-tête, ou null.
+     * @param eTag           ETag courant.
+     * @param weakComparison true pour ignorer le préfixe W/ (If-None-Match), false pour une comparaison stricte (If-Match).
+     * @return true si l'en-tête désigne l'ETag courant.
+     */
+    private static boolean eTagMatches(String header, String eTag, boolean weakComparison) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (weakComparison && candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Écrit les tâches en NDJSON au fil du parcours ; le générateur vide son tampon dans la réponse quand il est plein.
+    // Le corps est écrit hors du thread de la requête : la trace éventuelle est passée explicitement
+    private void writeNdjson(Stream<Task> tasks, OutputStream outputStream, RequestTrace trace) throws IOException {
+        long start = System.nanoTime();
+        int count = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+        Iterator<Task> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            objectMapper.writeValue(generator, iterator.next());
+            generator.writeRaw('\n');
+            count++;
+        }
+        generator.flush();
+        if (trace != null) {
+            trace.addPhase(RequestTrace.STREAM, System.nanoTime() - start);
+            trace.setResultSize(count);
+        }
+    }
+
+    // Insère un lot de tâches importées puis vide le lot
+    private void importBatch(List<Task> batch, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> refusedTaskIds = taskService.addTasks(batch);
+        result.setImported(result.getImported() + batch.size() - refusedTaskIds.size());
+        for (String taskId : refusedTaskIds) {
+            rejectImport(result, taskId, HttpStatus.INSUFFICIENT_STORAGE, TASK_LIMIT_REACHED);
+        }
+        batch.clear();
+    }
+
+    // Compte une tâche refusée à l'import ; seuls les premiers refus sont détaillés
+    private static void rejectImport(ImportResult result, String taskId, HttpStatus status, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_IMPORT_ERRORS) {
+            result.getErrors().add(new BatchItemResult(taskId, status.value(), message));
+        }
+    }
+
+    // Compte un refus de permission dans les métriques
+    private void recordDenial(TaskAccessPolicy policy, String action) {
+        taskMetrics.recordDenial(String.valueOf(policy.getRole()), action);
     }
 }
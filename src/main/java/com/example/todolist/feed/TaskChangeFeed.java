@@ -0,0 +1,175 @@
+package com.example.todolist.feed;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.model.TaskEvent;
+import com.example.todolist.security.TaskAccessPolicy;
+import com.example.todolist.service.TaskService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diffuse les écritures de {@link TaskService} aux abonnés SSE de {@code GET /tasks/stream}.
+ * <p>
+ * Chaque abonné ne reçoit que les tâches visibles selon sa {@link TaskAccessPolicy}. Le nombre d'abonnés est borné,
+ * et chacun dispose d'une file bornée vidée par un pool de threads dédié : l'écriture d'une tâche ne fait que des
+ * {@code offer()} non bloquants. Un abonné dont la file déborde est déconnecté ; il se reconnecte et relit
+ * l'état courant via {@code GET /tasks}.
+ */
+@Component
+public class TaskChangeFeed {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Semaphore slots;
+    private final int queueCapacity;
+    private final Duration timeout;
+    private final ExecutorService senders;
+    private final AtomicLong eventIds = new AtomicLong();
+
+    public TaskChangeFeed(TaskService taskService,
+                          @Value("${todolist.feed.max-subscribers:1000}") int maxSubscribers,
+                          @Value("${todolist.feed.queue-capacity:256}") int queueCapacity,
+                          @Value("${todolist.feed.timeout:PT30M}") Duration timeout,
+                          @Value("${todolist.feed.sender-threads:4}") int senderThreads) {
+        this.slots = new Semaphore(maxSubscribers);
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "task-feed-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        taskService.addListener(this::publish);
+    }
+
+    /**
+     * Méthode pour abonner un utilisateur au flux de changements.
+     *
+     * @param policy Règles d'accès de l'utilisateur, appliquées à chaque événement.
+     * @return L'émetteur SSE, ou null si le nombre maximal d'abonnés est atteint.
+     */
+    public SseEmitter subscribe(TaskAccessPolicy policy) {
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(policy, new SseEmitter(timeout.toMillis()), queueCapacity);
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(error -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    // Nombre d'abonnés connectés
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    // Appelé sous le verrou de la tâche : aucune entrée/sortie ici, seulement des offer() et des soumissions au pool
+    private void publish(Task previous, Task current) {
+        for (Subscriber subscriber : subscribers) {
+            TaskEvent event = eventFor(subscriber.policy, previous, current);
+            if (event == null) {
+                continue;
+            }
+            if (!subscriber.queue.offer(event)) {
+                subscriber.dropped = true;
+            }
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Méthode privée qui construit l'événement vu par un abonné.
+     * Une tâche qui sort du périmètre de l'abonné (ex. réassignation) lui est notifiée comme supprimée,
+     * sans exposer son nouveau contenu.
+     */
+    private static TaskEvent eventFor(TaskAccessPolicy policy, Task previous, Task current) {
+        boolean visibleBefore = previous != null && policy.canAccess(previous);
+        boolean visibleAfter = current != null && policy.canAccess(current);
+        if (visibleAfter) {
+            TaskEvent.Type type = visibleBefore ? TaskEvent.Type.UPDATED : TaskEvent.Type.CREATED;
+            return new TaskEvent(type, current.getId(), current);
+        }
+        if (visibleBefore) {
+            return new TaskEvent(TaskEvent.Type.DELETED, previous.getId(), null);
+        }
+        return null;
+    }
+
+    // Un seul envoi en cours par abonné, pour conserver l'ordre des événements
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.dropped) {
+                unsubscribe(subscriber);
+                subscriber.emitter.complete();
+                return;
+            }
+            TaskEvent event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(eventIds.incrementAndGet()))
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client déconnecté ou émetteur déjà terminé
+            unsubscribe(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Un événement a pu arriver entre le dernier poll() et la remise à false
+        if (!subscriber.queue.isEmpty() || subscriber.dropped) {
+            schedule(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            slots.release();
+        }
+    }
+
+    private static final class Subscriber {
+        private final TaskAccessPolicy policy;
+        private final SseEmitter emitter;
+        private final Queue<TaskEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean dropped;
+
+        private Subscriber(TaskAccessPolicy policy, SseEmitter emitter, int queueCapacity) {
+            this.policy = policy;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.todolist.metrics;
+
+import com.example.todolist.cache.TaskListingCache;
+import com.example.todolist.service.TaskService;
+import com.example.todolist.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métriques Micrometer de l'API des tâches, exportées au format Prometheus par /actuator/prometheus.
+ */
+@Component
+public class TaskMetrics {
+
+    static final String UNKNOWN_ROLE = "UNKNOWN";
+
+    private final MeterRegistry registry;
+
+    public TaskMetrics(MeterRegistry registry, TaskService taskService, UserService userService, TaskListingCache listingCache) {
+        this.registry = registry;
+
+        // Taille des stores et cardinalité des index
+        Gauge.builder("todolist.tasks", taskService, TaskService::getTaskCount)
+                .description("Number of tasks in memory")
+                .register(registry);
+        Gauge.builder("todolist.tasks.archived", taskService, TaskService::getArchivedTaskCount)
+                .description("Number of archived tasks")
+                .register(registry);
+        Gauge.builder("todolist.tasks.archive.size", taskService, TaskService::getArchiveSizeInBytes)
+                .baseUnit("bytes")
+                .description("Compressed size of the task archive")
+                .register(registry);
+        Gauge.builder("todolist.users", userService, UserService::getUserCount)
+                .description("Number of registered users")
+                .register(registry);
+        Gauge.builder("todolist.tasks.index.keys", taskService, TaskService::getCompanyCount)
+                .tag("index", "company")
+                .description("Distinct keys in the task index")
+                .register(registry);
+        Gauge.builder("todolist.tasks.index.keys", taskService, TaskService::getAssigneeCount)
+                .tag("index", "assignee")
+                .description("Distinct keys in the task index")
+                .register(registry);
+
+        // Cache des utilisateurs
+        FunctionCounter.builder("todolist.user.cache.requests", userService, service -> service.getCacheStats().hitCount())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("todolist.user.cache.requests", userService, service -> service.getCacheStats().missCount())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("todolist.user.cache.evictions", userService, service -> service.getCacheStats().evictionCount())
+                .register(registry);
+
+        // Cache des listes sérialisées
+        FunctionCounter.builder("todolist.listing.cache.requests", listingCache, cache -> cache.getCacheStats().hitCount())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("todolist.listing.cache.requests", listingCache, cache -> cache.getCacheStats().missCount())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("todolist.listing.cache.evictions", listingCache, cache -> cache.getCacheStats().evictionCount())
+                .register(registry);
+        Gauge.builder("todolist.listing.cache.size", listingCache, TaskListingCache::getWeightedSize)
+                .baseUnit("bytes")
+                .description("Serialized listings held in the cache")
+                .register(registry);
+    }
+
+    /**
+     * Enregistre la durée d'une requête sur un endpoint.
+     *
+     * @param endpoint      Nom de la méthode du contrôleur.
+     * @param role          Rôle de l'utilisateur, ou UNKNOWN.
+     * @param status        Statut HTTP de la réponse.
+     * @param durationNanos Durée en nanosecondes.
+     */
+    public void recordRequest(String endpoint, String role, int status, long durationNanos) {
+        Timer.builder("todolist.http.requests")
+                .description("Task API request latency")
+                .tag("endpoint", endpoint)
+                .tag("role", role)
+                .tag("status", String.valueOf(status))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Compte un refus de permission.
+     *
+     * @param role   Rôle de l'utilisateur.
+     * @param action Action refusée (create, read, update, delete).
+     */
+    public void recordDenial(String role, String action) {
+        Counter.builder("todolist.permission.denials")
+                .description("Task operations rejected by the permission policy")
+                .tag("role", role)
+                .tag("action", action)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.todolist.metrics;
+
+import com.example.todolist.model.User;
+import com.example.todolist.service.UserService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Chronomètre chaque requête traitée par un contrôleur, avec l'endpoint, le rôle de l'utilisateur et le statut.
+ * Le rôle est résolu depuis le paramètre userId via le cache des utilisateurs.
+ * Une requête asynchrone est chronométrée depuis son premier passage jusqu'à la fin du second.
+ */
+@Component
+public class TaskMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = TaskMetricsInterceptor.class.getName() + ".start";
+
+    private final TaskMetrics taskMetrics;
+    private final UserService userService;
+
+    public TaskMetricsInterceptor(TaskMetrics taskMetrics, UserService userService) {
+        this.taskMetrics = taskMetrics;
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Le second passage d'une requête asynchrone garde l'heure de début du premier
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (!(start instanceof Long) || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+        String endpoint = ((HandlerMethod) handler).getMethod().getName();
+        taskMetrics.recordRequest(endpoint, roleOf(request), response.getStatus(), System.nanoTime() - (Long) start);
+    }
+
+    private String roleOf(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        if (userId == null) {
+            return TaskMetrics.UNKNOWN_ROLE;
+        }
+        return userService.getUserById(userId)
+                .map(User::getRole)
+                .map(Enum::name)
+                .orElse(TaskMetrics.UNKNOWN_ROLE);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.todolist.metrics;
+
+import com.example.todolist.model.TenantUsage;
+import com.example.todolist.service.TaskService;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Endpoint d'administration {@code /actuator/tenants} : occupation de chaque compagnie (tâches actives et archivées,
+ * taille estimée, partition chargée ou non). {@code DELETE /actuator/tenants/{companyId}} décharge une compagnie
+ * vers son fichier de débordement, {@code POST} la recharge ; un accès à ses tâches la recharge aussi.
+ * Ces deux opérations ne sont exposées qu'avec {@code management.endpoint.tenants.access=unrestricted}.
+ */
+@Component
+@Endpoint(id = "tenants")
+public class TenantsEndpoint {
+
+    private final TaskService taskService;
+
+    public TenantsEndpoint(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @ReadOperation
+    public List<TenantUsage> tenants() {
+        return taskService.getTenantUsage();
+    }
+
+    // null (404) si la compagnie n'a jamais eu de tâche
+    @ReadOperation
+    public TenantUsage tenant(@Selector String companyId) {
+        return taskService.getTenantUsage(companyId).orElse(null);
+    }
+
+    @DeleteOperation
+    public TenantUsage evict(@Selector String companyId) {
+        taskService.evictCompany(companyId);
+        return tenant(companyId);
+    }
+
+    @WriteOperation
+    public TenantUsage load(@Selector String companyId) {
+        taskService.loadCompany(companyId);
+        return tenant(companyId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.todolist.model;
+
+public class BatchItemResult {
+    private String id;
+    private int status;
+    private String message;
+
+    // Constructeur par défaut
+    public BatchItemResult() {
+    }
+
+    // Constructeur avec paramètres
+    public BatchItemResult(String id, int status, String message) {
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters et Setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
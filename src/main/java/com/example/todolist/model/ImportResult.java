@@ -0,0 +1,47 @@
+package com.example.todolist.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResult {
+    private long imported;
+    private long rejected;
+    private List<BatchItemResult> errors = new ArrayList<>();
+
+    // Constructeur par défaut
+    public ImportResult() {
+    }
+
+    // Constructeur avec paramètres
+    public ImportResult(long imported, long rejected, List<BatchItemResult> errors) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+    }
+
+    // Getters et Setters
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<BatchItemResult> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BatchItemResult> errors) {
+        this.errors = errors;
+    }
+}
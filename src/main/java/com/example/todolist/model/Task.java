@@ -1,10 +1,26 @@
 package com.example.todolist.model;
 
+import com.example.todolist.codec.TaskDeserializer;
+import com.example.todolist.codec.TaskSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.Instant;
+
+// (Dé)sérialisation écrite à la main, sans réflexion, pour JSON comme pour CBOR
+@JsonSerialize(using = TaskSerializer.class)
+@JsonDeserialize(using = TaskDeserializer.class)
 public class Task {
     private String id;
     private String description;
     private String assignedToUserId;
     private String companyId;
+    // Version attribuée par TaskService à chaque écriture (croissante)
+    private long version;
+    // Échéance optionnelle : une fois passée, la tâche quitte les listes et rejoint l'archive
+    private Instant expiresAt;
+    // Date d'archivage, renseignée par TaskService sur les tâches lues depuis l'archive
+    private Instant archivedAt;
 
     // Constructeur par défaut
     public Task() {
@@ -51,4 +67,28 @@ public class Task {
     public void setCompanyId(String companyId) {
         this.companyId = companyId;
     }
-}
\ No newline at end of file
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(Instant archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.todolist.model;
+
+public class TaskEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private Type type;
+    private String taskId;
+    private Task task;
+
+    // Constructeur par défaut
+    public TaskEvent() {
+    }
+
+    // Constructeur avec paramètres
+    public TaskEvent(Type type, String taskId, Task task) {
+        this.type = type;
+        this.taskId = taskId;
+        this.task = task;
+    }
+
+    // Getters et Setters
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public void setTask(Task task) {
+        this.task = task;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.todolist.model;
+
+import java.util.Map;
+
+public class TaskStats {
+    private long total;
+    private Map<String, Long> byCompanyId;
+    private Map<String, Long> byAssignedToUserId;
+
+    // Constructeur par défaut
+    public TaskStats() {
+    }
+
+    // Constructeur avec paramètres
+    public TaskStats(long total, Map<String, Long> byCompanyId, Map<String, Long> byAssignedToUserId) {
+        this.total = total;
+        this.byCompanyId = byCompanyId;
+        this.byAssignedToUserId = byAssignedToUserId;
+    }
+
+    // Getters et Setters
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getByCompanyId() {
+        return byCompanyId;
+    }
+
+    public void setByCompanyId(Map<String, Long> byCompanyId) {
+        this.byCompanyId = byCompanyId;
+    }
+
+    public Map<String, Long> getByAssignedToUserId() {
+        return byAssignedToUserId;
+    }
+
+    public void setByAssignedToUserId(Map<String, Long> byAssignedToUserId) {
+        this.byAssignedToUserId = byAssignedToUserId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.todolist.model;
+
+public class TenantUsage {
+    private String companyId;
+    private boolean loaded;
+    private long taskCount;
+    private long archivedTaskCount;
+    private long sizeInBytes;
+
+    // Constructeur par défaut
+    public TenantUsage() {
+    }
+
+    // Constructeur avec paramètres
+    public TenantUsage(String companyId, boolean loaded, long taskCount, long archivedTaskCount, long sizeInBytes) {
+        this.companyId = companyId;
+        this.loaded = loaded;
+        this.taskCount = taskCount;
+        this.archivedTaskCount = archivedTaskCount;
+        this.sizeInBytes = sizeInBytes;
+    }
+
+    // Getters et Setters
+
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(String companyId) {
+        this.companyId = companyId;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded(boolean loaded) {
+        this.loaded = loaded;
+    }
+
+    public long getTaskCount() {
+        return taskCount;
+    }
+
+    public void setTaskCount(long taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public long getArchivedTaskCount() {
+        return archivedTaskCount;
+    }
+
+    public void setArchivedTaskCount(long archivedTaskCount) {
+        this.archivedTaskCount = archivedTaskCount;
+    }
+
+    // Taille estimée en mémoire si la partition est chargée, sinon taille de son fichier de débordement
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public void setSizeInBytes(long sizeInBytes) {
+        this.sizeInBytes = sizeInBytes;
+    }
+}
@@ -0,0 +1,506 @@
+package com.example.todolist.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Journal en ajout seul sur disque, une opération JSON par ligne.
+ * <p>
+ * Les ajouts sont mis en file puis écrits et synchronisés (fsync) par lots par un thread dédié (group commit) :
+ * les écrivains concurrents partagent le même fsync. En mode synchrone, {@link #awaitDurable(long)} attend ce fsync ;
+ * sinon les opérations sont rendues durables au plus tard après l'intervalle de group commit.
+ * <p>
+ * {@link #append(JournalEntry)} est appelé sous le verrou de bin de {@code ConcurrentHashMap.compute()} :
+ * il ne prend aucun verrou et ne bloque jamais, pour ne pas épingler un thread virtuel à son thread porteur.
+ * <p>
+ * Un lot dont l'écriture échoue est déjà appliqué en mémoire : il n'est jamais abandonné. Le thread d'écriture
+ * le réessaie jusqu'à ce qu'il passe ; en attendant, le journal refuse les nouveaux ajouts
+ * ({@link JournalUnavailableException}), avant toute écriture en mémoire, et {@link #getFailure()} expose l'erreur
+ * (indicateur de santé). Les appelants du lot en échec attendent sa réécriture.
+ * <p>
+ * La compaction périodique bascule le journal courant vers un segment précédent, puis replie l'instantané
+ * existant et ce segment dans un nouvel instantané. Elle ne lit que les fichiers du journal,
+ * jamais l'état en mémoire du service, et n'a donc pas à se coordonner avec les écritures en cours.
+ *
+ * @param <T> Type des valeurs journalisées.
+ */
+public class FileJournal<T> implements Journal<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(FileJournal.class);
+
+    // Délai entre deux tentatives d'écriture d'un lot en échec
+    private static final long RETRY_INTERVAL_MS = 1000;
+
+    private final Path logFile;
+    private final Path previousLogFile;
+    private final Path snapshotFile;
+    private final ObjectMapper objectMapper;
+    private final JavaType entryType;
+    private final boolean sync;
+    private final long groupCommitIntervalMs;
+
+    // Lignes en attente d'écriture ; la séquence est incrémentée après l'ajout dans la file,
+    // donc toute séquence lue avant de vider la file correspond à une ligne déjà présente
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong appendedSequence = new AtomicLong();
+    private volatile boolean closed;
+
+    // Attente de durabilité, toujours hors de la section critique de l'appelant
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private long durableSequence;
+    private boolean stopped;
+
+    // Erreur de la dernière tentative d'écriture, tant que le lot en échec n'est pas écrit
+    private volatile IOException failure;
+
+    // Protège le canal entre le thread d'écriture et la bascule de segment de la compaction
+    private final ReentrantLock channelLock = new ReentrantLock();
+    private FileChannel channel;
+
+    // Taille du journal avant un lot en échec qu'il n'a pas été possible de retirer du fichier, ou -1
+    private long truncateTo = -1;
+
+    private final Thread flusher;
+    private final ScheduledExecutorService compactor;
+
+    public FileJournal(Path directory, String name, Class<T> valueType, ObjectMapper objectMapper,
+                       boolean sync, long groupCommitIntervalMs, long snapshotIntervalMs) {
+        this.logFile = directory.resolve(name + ".log");
+        this.previousLogFile = directory.resolve(name + ".log.previous");
+        this.snapshotFile = directory.resolve(name + ".snapshot");
+        this.objectMapper = objectMapper;
+        this.entryType = objectMapper.getTypeFactory().constructParametricType(JournalEntry.class, valueType);
+        this.sync = sync;
+        this.groupCommitIntervalMs = groupCommitIntervalMs;
+
+        try {
+            Files.createDirectories(directory);
+            // L'instantané est écrit puis renommé atomiquement : seuls les segments du journal peuvent finir par une ligne interrompue
+            truncateIncompleteLine(previousLogFile);
+            truncateIncompleteLine(logFile);
+            this.channel = openLog();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + logFile, e);
+        }
+
+        this.flusher = new Thread(this::flushLoop, "journal-" + name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-" + name + "-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (snapshotIntervalMs > 0) {
+            this.compactor.scheduleWithFixedDelay(this::compactQuietly, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public long replay(Consumer<JournalEntry<T>> consumer) {
+        long count = 0;
+        // Instantané, puis segment précédent (compaction interrompue), puis journal courant
+        for (Path file : List.of(snapshotFile, previousLogFile, logFile)) {
+            count += replayFile(file, consumer);
+        }
+        return count;
+    }
+
+    @Override
+    public long append(JournalEntry<T> entry) {
+        byte[] line = serialize(entry);
+        if (closed) {
+            throw new IllegalStateException("Journal is closed: " + logFile);
+        }
+        IOException currentFailure = failure;
+        if (currentFailure != null) {
+            throw new JournalUnavailableException(logFile, currentFailure);
+        }
+        pending.add(line);
+        long sequence = appendedSequence.incrementAndGet();
+        LockSupport.unpark(flusher);
+        return sequence;
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+        if (!sync) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durableSequence < sequence && !stopped) {
+                flushed.await();
+            }
+            if (durableSequence < sequence) {
+                throw new UncheckedIOException("Journal write failed: " + logFile, failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal sync", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Compacte le journal : l'instantané et le segment précédent sont repliés dans un nouvel instantané,
+     * écrit dans un fichier temporaire puis renommé atomiquement.
+     */
+    public void compact() throws IOException {
+        channelLock.lock();
+        try {
+            // Un lot en échec a laissé une fin de ligne dans le journal courant : il sera retiré à la prochaine tentative
+            if (truncateTo >= 0) {
+                return;
+            }
+            // Un segment précédent déjà présent vient d'une compaction interrompue : on le replie d'abord
+            if (!Files.exists(previousLogFile)) {
+                if (channel.size() == 0) {
+                    return;
+                }
+                channel.force(false);
+                channel.close();
+                Files.move(logFile, previousLogFile, StandardCopyOption.ATOMIC_MOVE);
+                channel = openLog();
+            }
+        } finally {
+            channelLock.unlock();
+        }
+
+        Map<String, String> state = new HashMap<>();
+        foldFile(snapshotFile, state);
+        foldFile(previousLogFile, state);
+
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel snapshotChannel = FileChannel.open(temporaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            for (String line : state.values()) {
+                byte[] bytes = (line + '\n').getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > buffer.remaining()) {
+                    drain(buffer, snapshotChannel);
+                }
+                if (bytes.length > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(bytes), snapshotChannel);
+                } else {
+                    buffer.put(bytes);
+                }
+            }
+            drain(buffer, snapshotChannel);
+            snapshotChannel.force(true);
+        }
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(previousLogFile);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        compactor.shutdownNow();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channelLock.lock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Cannot close journal {}", logFile, e);
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    // Boucle du thread d'écriture : chaque lot accumulé pendant le fsync précédent partage le fsync suivant
+    private void flushLoop() {
+        try {
+            while (true) {
+                long batchSequence = appendedSequence.get();
+                List<byte[]> batch = new ArrayList<>();
+                byte[] line;
+                while ((line = pending.poll()) != null) {
+                    batch.add(line);
+                }
+
+                if (batch.isEmpty()) {
+                    // Les séquences restantes ont été écrites avec le lot précédent, déjà synchronisé
+                    markDurable(batchSequence);
+                    if (closed) {
+                        return;
+                    }
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                if (!writeUntilDone(batch)) {
+                    return;
+                }
+                markDurable(batchSequence);
+
+                // En mode asynchrone, on laisse les opérations s'accumuler pour des lots plus gros
+                if (!sync && groupCommitIntervalMs > 0) {
+                    try {
+                        Thread.sleep(groupCommitIntervalMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        } finally {
+            stop();
+        }
+    }
+
+    /**
+     * Méthode privée qui écrit un lot, en le réessayant jusqu'à ce qu'il passe.
+     *
+     * @return false si le journal a été fermé avant que le lot ne soit écrit.
+     */
+    private boolean writeUntilDone(List<byte[]> batch) {
+        while (true) {
+            try {
+                write(batch);
+                if (failure != null) {
+                    log.info("Journal writes resumed: {}", logFile);
+                    failure = null;
+                }
+                return true;
+            } catch (IOException e) {
+                if (failure == null) {
+                    log.error("Journal write failed, refusing writes until it succeeds: {}", logFile, e);
+                }
+                failure = e;
+            }
+            if (closed) {
+                return false;
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(RETRY_INTERVAL_MS));
+        }
+    }
+
+    private void markDurable(long sequence) {
+        lock.lock();
+        try {
+            if (sequence > durableSequence) {
+                durableSequence = sequence;
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Le thread d'écriture s'est arrêté : les appelants encore en attente ne seront jamais servis
+    private void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Un lot en échec est retiré du fichier avant l'erreur, ou au plus tard avant la tentative suivante
+    private void write(List<byte[]> batch) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i));
+        }
+        channelLock.lock();
+        try {
+            if (truncateTo >= 0) {
+                channel.truncate(truncateTo);
+                truncateTo = -1;
+            }
+            long start = channel.size();
+            try {
+                int index = 0;
+                while (index < buffers.length) {
+                    channel.write(buffers, index, buffers.length - index);
+                    while (index < buffers.length && !buffers[index].hasRemaining()) {
+                        index++;
+                    }
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                try {
+                    channel.truncate(start);
+                } catch (IOException truncateFailure) {
+                    truncateTo = start;
+                    e.addSuppressed(truncateFailure);
+                }
+                throw e;
+            }
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    /**
+     * Méthode privée qui retire d'un segment la fin d'une ligne interrompue par un arrêt brutal pendant une écriture,
+     * avant de rouvrir le journal en ajout : sans cela, la première nouvelle ligne serait collée à ce fragment et perdue
+     * au redémarrage suivant. Chaque ligne est écrite d'un bloc avec son saut de ligne : tout ce qui suit le dernier
+     * saut de ligne est incomplet.
+     */
+    private static void truncateIncompleteLine(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = fileChannel.size();
+            long completeLength = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            // Parcours à rebours, par blocs, jusqu'au dernier saut de ligne
+            for (long end = size; end > 0 && completeLength == 0; ) {
+                long start = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    fileChannel.read(buffer, start + buffer.position());
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        completeLength = start + i + 1;
+                        break;
+                    }
+                }
+                end = start;
+            }
+            if (completeLength < size) {
+                log.warn("Removing {} bytes of truncated journal tail from {}", size - completeLength, file);
+                fileChannel.truncate(completeLength);
+                fileChannel.force(true);
+            }
+        }
+    }
+
+    private FileChannel openLog() throws IOException {
+        return FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private byte[] serialize(JournalEntry<T> entry) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(entry);
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize journal entry", e);
+        }
+    }
+
+    private long replayFile(Path file, Consumer<JournalEntry<T>> consumer) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    consumer.accept(objectMapper.readValue(line, entryType));
+                    count++;
+                } catch (JsonProcessingException e) {
+                    // La fin interrompue a été retirée à l'ouverture : une ligne illisible est une corruption
+                    throw new UncheckedIOException("Corrupt journal entry " + (count + 1) + " in " + file, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay journal " + file, e);
+        }
+        return count;
+    }
+
+    // Applique les lignes d'un fichier à l'état replié (ID -> dernière ligne PUT)
+    private void foldFile(Path file, Map<String, String> state) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    throw new IOException("Corrupt journal line in " + file, e);
+                }
+                JournalEntry.Operation operation = JournalEntry.Operation.valueOf(node.path("operation").asText());
+                if (operation == JournalEntry.Operation.PUT) {
+                    state.put(node.path("id").asText(), line);
+                } else if (operation == JournalEntry.Operation.DELETE) {
+                    state.remove(node.path("id").asText());
+                } else {
+                    state.clear();
+                }
+            }
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.error("Journal compaction failed: {}", logFile, e);
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel target) throws IOException {
+        buffer.flip();
+        writeFully(buffer, target);
+        buffer.clear();
+    }
+
+    private static void writeFully(ByteBuffer buffer, FileChannel target) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.todolist.persistence;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Journal des opérations d'écriture d'un service (ajout, suppression, vidage).
+ * L'ajout se fait dans la section critique de l'écriture en mémoire pour conserver l'ordre par clé ;
+ * l'attente de durabilité se fait ensuite, hors de cette section critique.
+ *
+ * @param <T> Type des valeurs journalisées.
+ */
+public interface Journal<T> {
+
+    /**
+     * Rejoue les opérations persistées, dans l'ordre, au démarrage du service.
+     *
+     * @param consumer Reçoit chaque opération rejouée.
+     * @return Nombre d'opérations rejouées.
+     */
+    long replay(Consumer<JournalEntry<T>> consumer);
+
+    /**
+     * Ajoute une opération au journal sans attendre qu'elle soit écrite sur disque.
+     *
+     * @param entry Opération à journaliser.
+     * @return Numéro de séquence à passer à {@link #awaitDurable(long)}.
+     */
+    long append(JournalEntry<T> entry);
+
+    /**
+     * Attend que toutes les opérations jusqu'au numéro de séquence donné soient durables.
+     *
+     * @param sequence Numéro de séquence renvoyé par {@link #append(JournalEntry)}.
+     */
+    void awaitDurable(long sequence);
+
+    /**
+     * @return Erreur d'écriture en cours, pendant laquelle le journal refuse les ajouts ; null si le journal fonctionne.
+     */
+    default IOException getFailure() {
+        return null;
+    }
+
+    // Libère les ressources (fichiers, threads)
+    void close();
+
+    // Journal sans persistance : le service reste purement en mémoire
+    @SuppressWarnings("unchecked")
+    static <T> Journal<T> noop() {
+        return (Journal<T>) NoopJournal.INSTANCE;
+    }
+}
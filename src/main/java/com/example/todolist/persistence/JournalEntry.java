@@ -0,0 +1,63 @@
+package com.example.todolist.persistence;
+
+public class JournalEntry<T> {
+
+    public enum Operation {
+        PUT,
+        DELETE,
+        CLEAR
+    }
+
+    private Operation operation;
+    private String id;
+    private T value;
+
+    // Constructeur par défaut
+    public JournalEntry() {
+    }
+
+    // Constructeur avec paramètres
+    public JournalEntry(Operation operation, String id, T value) {
+        this.operation = operation;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static <T> JournalEntry<T> put(String id, T value) {
+        return new JournalEntry<>(Operation.PUT, id, value);
+    }
+
+    public static <T> JournalEntry<T> delete(String id) {
+        return new JournalEntry<>(Operation.DELETE, id, null);
+    }
+
+    public static <T> JournalEntry<T> clear() {
+        return new JournalEntry<>(Operation.CLEAR, null, null);
+    }
+
+    // Getters et Setters
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public void setValue(T value) {
+        this.value = value;
+    }
+}
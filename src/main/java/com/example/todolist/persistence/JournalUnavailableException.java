@@ -0,0 +1,16 @@
+package com.example.todolist.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Levée par {@link Journal#append(JournalEntry)} tant qu'un lot précédent n'a pas pu être écrit :
+ * l'écriture est refusée avant d'être appliquée en mémoire.
+ */
+public class JournalUnavailableException extends UncheckedIOException {
+
+    public JournalUnavailableException(Path logFile, IOException failure) {
+        super("Journal unavailable: " + logFile, failure);
+    }
+}
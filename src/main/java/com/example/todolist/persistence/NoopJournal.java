@@ -0,0 +1,30 @@
+package com.example.todolist.persistence;
+
+import java.util.function.Consumer;
+
+// Journal qui ne persiste rien, utilisé quand la persistance est désactivée
+final class NoopJournal implements Journal<Object> {
+
+    static final NoopJournal INSTANCE = new NoopJournal();
+
+    private NoopJournal() {
+    }
+
+    @Override
+    public long replay(Consumer<JournalEntry<Object>> consumer) {
+        return 0;
+    }
+
+    @Override
+    public long append(JournalEntry<Object> entry) {
+        return 0;
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.todolist.ratelimit;
+
+import com.example.todolist.model.User;
+import com.example.todolist.service.UserService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contrôle d'admission avant les méthodes du contrôleur :
+ * <ul>
+ *     <li>au-delà de {@code max-in-flight} requêtes en cours, rejet immédiat en 503 plutôt que de laisser
+ *     la file d'attente (et la latence de tous les locataires) grandir ;</li>
+ *     <li>sinon, limitation de débit par locataire ({@link TenantRateLimiter}), avec un 429.</li>
+ * </ul>
+ * Les deux réponses portent un en-tête Retry-After. Une requête asynchrone (flux SSE, NDJSON) libère sa place
+ * dès la fin du traitement initial : une connexion longue ne compte pas comme une requête en attente.
+ */
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final String ADMITTED_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admitted";
+
+    private final TenantRateLimiter rateLimiter;
+    private final UserService userService;
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdmissionControlInterceptor(TenantRateLimiter rateLimiter, UserService userService,
+                                       @Value("${todolist.rate-limit.enabled:true}") boolean enabled,
+                                       @Value("${todolist.rate-limit.max-in-flight:512}") int maxInFlight) {
+        this.rateLimiter = rateLimiter;
+        this.userService = userService;
+        this.enabled = enabled;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // La reprise d'une requête asynchrone a déjà été admise
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        if (maxInFlight > 0) {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is overloaded, please retry.");
+                return false;
+            }
+            request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+        }
+
+        // Utilisateur inconnu : le contrôleur répond 404 sans consommer de quota
+        String userId = request.getParameter("userId");
+        Optional<User> optionalUser = userId == null ? Optional.empty() : userService.getUserById(userId);
+        if (optionalUser.isPresent()) {
+            long waitNanos = rateLimiter.tryAcquire(optionalUser.get());
+            if (waitNanos > 0) {
+                release(request);
+                long retryAfterSeconds = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds, "Too many requests for this company, please retry later.");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    // Nombre de requêtes en cours de traitement
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Libère la place une seule fois, quel que soit le chemin de sortie
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
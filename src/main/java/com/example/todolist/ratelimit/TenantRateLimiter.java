@@ -0,0 +1,113 @@
+package com.example.todolist.ratelimit;
+
+import com.example.todolist.model.Role;
+import com.example.todolist.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitation de débit par locataire : un seau à jetons par compagnie, partagé par tous ses utilisateurs,
+ * et un budget distinct pour les Super Users, qui n'appartiennent à aucune compagnie.
+ * Les quotas par défaut peuvent être surchargés compagnie par compagnie.
+ */
+@Component
+public class TenantRateLimiter {
+
+    // Clés de seau hors compagnie (les préfixes évitent toute collision avec un ID de compagnie)
+    static final String SUPER_USER_TENANT = "#super-user";
+    static final String NO_COMPANY_TENANT = "#no-company";
+
+    private final Quota defaultQuota;
+    private final Quota superUserQuota;
+    private final Map<String, Quota> companyQuotas;
+    private final LongSupplier clock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public TenantRateLimiter(Quota defaultQuota, Quota superUserQuota, Map<String, Quota> companyQuotas, LongSupplier clock) {
+        this.defaultQuota = defaultQuota;
+        this.superUserQuota = superUserQuota;
+        this.companyQuotas = companyQuotas;
+        this.clock = clock;
+    }
+
+    @Autowired
+    public TenantRateLimiter(@Value("${todolist.rate-limit.requests-per-second:200}") double ratePerSecond,
+                             @Value("${todolist.rate-limit.burst:400}") int burst,
+                             @Value("${todolist.rate-limit.super-user.requests-per-second:2000}") double superUserRatePerSecond,
+                             @Value("${todolist.rate-limit.super-user.burst:4000}") int superUserBurst,
+                             @Value("${todolist.rate-limit.company-quotas:}") List<String> companyQuotas) {
+        this(new Quota(ratePerSecond, burst), new Quota(superUserRatePerSecond, superUserBurst),
+                parseCompanyQuotas(companyQuotas), System::nanoTime);
+    }
+
+    /**
+     * Méthode pour consommer un jeton du locataire de l'utilisateur.
+     *
+     * @param user Utilisateur qui effectue la requête.
+     * @return 0 si la requête est admise, sinon le délai en nanosecondes avant de pouvoir réessayer.
+     */
+    public long tryAcquire(User user) {
+        String tenant = tenantOf(user);
+        long now = clock.getAsLong();
+        TokenBucket bucket = buckets.get(tenant);
+        if (bucket == null) {
+            Quota quota = quotaOf(user, tenant);
+            bucket = buckets.computeIfAbsent(tenant, t -> new TokenBucket(quota.ratePerSecond, quota.burst, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    private static String tenantOf(User user) {
+        if (user.getRole() == Role.SUPER_USER) {
+            return SUPER_USER_TENANT;
+        }
+        return user.getCompanyId() != null ? user.getCompanyId() : NO_COMPANY_TENANT;
+    }
+
+    private Quota quotaOf(User user, String tenant) {
+        if (user.getRole() == Role.SUPER_USER) {
+            return superUserQuota;
+        }
+        return companyQuotas.getOrDefault(tenant, defaultQuota);
+    }
+
+    // Entrées de la forme companyId=débit ou companyId=débit/rafale (débit en requêtes par seconde)
+    private static Map<String, Quota> parseCompanyQuotas(List<String> entries) {
+        Map<String, Quota> quotas = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] keyValue = entry.trim().split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid company quota: " + entry);
+            }
+            String[] rateBurst = keyValue[1].split("/", 2);
+            double ratePerSecond = Double.parseDouble(rateBurst[0]);
+            int burst = rateBurst.length == 2 ? Integer.parseInt(rateBurst[1]) : (int) Math.ceil(ratePerSecond);
+            quotas.put(keyValue[0], new Quota(ratePerSecond, burst));
+        }
+        return quotas;
+    }
+
+    // Débit soutenu (requêtes par seconde) et rafale maximale
+    public static final class Quota {
+        private final double ratePerSecond;
+        private final int burst;
+
+        public Quota(double ratePerSecond, int burst) {
+            if (ratePerSecond <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("Rate and burst must be positive");
+            }
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.todolist.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seau à jetons sans verrou, sous sa forme GCRA : tout l'état tient dans un seul long, l'instant théorique
+ * d'arrivée de la prochaine requête, mis à jour par compareAndSet. Équivalent à un seau de {@code burst} jetons
+ * rechargé à {@code ratePerSecond} jetons par seconde.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong theoreticalArrivalTime;
+
+    TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.capacityNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Prend un jeton s'il en reste.
+     *
+     * @param nowNanos Instant courant (System.nanoTime()).
+     * @return 0 si la requête est admise, sinon le délai en nanosecondes avant qu'un jeton soit disponible.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrivalTime = theoreticalArrivalTime.get();
+            long next = Math.max(arrivalTime, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrivalTime.compareAndSet(arrivalTime, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.todolist.security;
+
+import com.example.todolist.model.Role;
+import com.example.todolist.model.Task;
+import com.example.todolist.model.TaskStats;
+import com.example.todolist.service.TaskService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Droits d'un utilisateur sur les tâches, compilés une fois à partir de son rôle.
+ * Les vérifications ne font qu'une comparaison de chaînes, sans allocation, et tolèrent les IDs nuls.
+ */
+public final class TaskAccessPolicy {
+
+    // Périmètre des tâches visibles, qui détermine aussi l'index à interroger
+    public enum Scope {
+        ALL,
+        COMPANY,
+        ASSIGNEE,
+        NONE
+    }
+
+    private final Role role;
+    private final String userId;
+    private final String companyId;
+    private final Scope scope;
+    private final String scopeKey;
+
+    TaskAccessPolicy(Role role, String userId, String companyId) {
+        this.role = role;
+        this.userId = userId;
+        this.companyId = companyId;
+        this.scope = scopeOf(role, userId, companyId);
+        this.scopeKey = scopeKeyOf(scope, userId, companyId);
+    }
+
+    // Identifie l'ensemble des tâches visibles : deux politiques de même clé voient les mêmes tâches
+    private static String scopeKeyOf(Scope scope, String userId, String companyId) {
+        switch (scope) {
+            case COMPANY:
+                return scope + ":" + companyId;
+            case ASSIGNEE:
+                return scope + ":" + userId;
+            default:
+                return scope.name();
+        }
+    }
+
+    private static Scope scopeOf(Role role, String userId, String companyId) {
+        if (role == Role.SUPER_USER) {
+            return Scope.ALL;
+        } else if (role == Role.COMPANY_ADMIN && companyId != null) {
+            return Scope.COMPANY;
+        } else if (role == Role.STANDARD && userId != null) {
+            return Scope.ASSIGNEE;
+        } else {
+            return Scope.NONE;
+        }
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getCompanyId() {
+        return companyId;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public String getScopeKey() {
+        return scopeKey;
+    }
+
+    /**
+     * Super User : n'importe quelle tâche ; Company-Admin : tâches de sa compagnie ;
+     * Standard : tâches assignées à lui-même dans sa compagnie.
+     */
+    public boolean canCreate(Task task) {
+        switch (scope) {
+            case ALL:
+                return true;
+            case COMPANY:
+                return companyId.equals(task.getCompanyId());
+            case ASSIGNEE:
+                return userId.equals(task.getAssignedToUserId()) && companyId != null && companyId.equals(task.getCompanyId());
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Super User : n'importe quelle tâche ; Company-Admin : tâches de sa compagnie ;
+     * Standard : uniquement ses propres tâches.
+     */
+    public boolean canAccess(Task task) {
+        switch (scope) {
+            case ALL:
+                return true;
+            case COMPANY:
+                return companyId.equals(task.getCompanyId());
+            case ASSIGNEE:
+                return userId.equals(task.getAssignedToUserId());
+            default:
+                return false;
+        }
+    }
+
+    // La logique est la même que pour l'accès
+    public boolean canUpdate(Task task) {
+        return canAccess(task);
+    }
+
+    // La logique est la même que pour l'accès
+    public boolean canDelete(Task task) {
+        return canAccess(task);
+    }
+
+    /**
+     * Plan de requête : les tâches visibles sont lues directement dans l'index correspondant au périmètre,
+     * sans filtrer l'ensemble des tâches.
+     *
+     * @param taskService Service des tâches.
+     * @param cursor      Curseur exclusif (ID de tâche) ou null.
+     * @return Flux ordonné par ID des tâches visibles.
+     */
+    public Stream<Task> streamVisibleTasks(TaskService taskService, String cursor) {
+        switch (scope) {
+            case ALL:
+                return taskService.streamAllTasks(cursor);
+            case COMPANY:
+                return taskService.streamTasksByCompanyId(companyId, cursor);
+            case ASSIGNEE:
+                return taskService.streamTasksByAssignedToUserId(userId, cursor);
+            default:
+                return Stream.empty();
+        }
+    }
+
+    /**
+     * Liste les tâches visibles, comme {@link #streamVisibleTasks}, en parallèle pour un grand périmètre.
+     *
+     * @param taskService Service des tâches.
+     * @param cursor      Curseur exclusif (ID de tâche) ou null.
+     * @return Tâches visibles ordonnées par ID.
+     */
+    public List<Task> listVisibleTasks(TaskService taskService, String cursor) {
+        switch (scope) {
+            case ALL:
+                return taskService.listAllTasks(cursor);
+            case COMPANY:
+                return taskService.listTasksByCompanyId(companyId, cursor);
+            case ASSIGNEE:
+                return taskService.listTasksByAssignedToUserId(userId, cursor);
+            default:
+                return List.of();
+        }
+    }
+
+    /**
+     * Version des tâches visibles, lue dans le compteur du périmètre sans parcourir les tâches.
+     * Elle change dès qu'une tâche entre dans le périmètre, y est modifiée ou en sort.
+     *
+     * @param taskService Service des tâches.
+     * @return Version du périmètre (0 pour un périmètre vide).
+     */
+    public long visibleVersion(TaskService taskService) {
+        switch (scope) {
+            case ALL:
+                return taskService.getVersion();
+            case COMPANY:
+                return taskService.getCompanyVersion(companyId);
+            case ASSIGNEE:
+                return taskService.getAssigneeVersion(userId);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Nombre de tâches visibles par compagnie et par utilisateur assigné, lu dans les compteurs du périmètre.
+     *
+     * @param taskService Service des tâches.
+     * @return Compteurs des tâches visibles (vides pour un périmètre vide).
+     */
+    public TaskStats visibleStats(TaskService taskService) {
+        switch (scope) {
+            case ALL:
+                return taskService.getStats();
+            case COMPANY:
+                return taskService.getCompanyStats(companyId);
+            case ASSIGNEE:
+                return taskService.getAssigneeStats(userId);
+            default:
+                return new TaskStats(0, Map.of(), Map.of());
+        }
+    }
+}
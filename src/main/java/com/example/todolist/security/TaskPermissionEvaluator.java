@@ -0,0 +1,21 @@
+package com.example.todolist.security;
+
+import com.example.todolist.model.User;
+import com.example.todolist.tracing.RequestTrace;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compile un utilisateur en {@link TaskAccessPolicy}, à chaque requête : la compilation ne coûte que quelques
+ * comparaisons, et une politique toujours recalculée suit sans délai les changements de rôle ou de compagnie.
+ */
+@Component
+public class TaskPermissionEvaluator {
+
+    public TaskAccessPolicy policyFor(User user) {
+        long start = RequestTrace.start();
+        RequestTrace.recordRole(String.valueOf(user.getRole()));
+        TaskAccessPolicy policy = new TaskAccessPolicy(user.getRole(), user.getId(), user.getCompanyId());
+        RequestTrace.end(RequestTrace.POLICY, start);
+        return policy;
+    }
+}
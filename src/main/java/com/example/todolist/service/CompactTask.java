@@ -0,0 +1,73 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Représentation stockée d'une tâche : les IDs de compagnie et d'assigné sont remplacés par leur entier
+ * dans {@link IdDictionary}, et la description est gardée en octets UTF-8, sans l'objet String qui l'enveloppe.
+ * Le POJO {@link Task} n'est reconstruit qu'à la lecture, par {@link #toTask(IdDictionary)}.
+ * <p>
+ * Immuable : une écriture remplace l'instance entière.
+ */
+final class CompactTask {
+
+    private final String id;
+    private final byte[] description;
+    private final int assignedToUserId;
+    private final int companyId;
+    private final long version;
+    private final Instant expiresAt;
+
+    private CompactTask(String id, byte[] description, int assignedToUserId, int companyId, long version, Instant expiresAt) {
+        this.id = id;
+        this.description = description;
+        this.assignedToUserId = assignedToUserId;
+        this.companyId = companyId;
+        this.version = version;
+        this.expiresAt = expiresAt;
+    }
+
+    static CompactTask of(Task task, IdDictionary ids) {
+        byte[] description = task.getDescription() == null ? null : task.getDescription().getBytes(StandardCharsets.UTF_8);
+        return new CompactTask(task.getId(), description, ids.encode(task.getAssignedToUserId()),
+                ids.encode(task.getCompanyId()), task.getVersion(), task.getExpiresAt());
+    }
+
+    Task toTask(IdDictionary ids) {
+        Task task = new Task(id,
+                description == null ? null : new String(description, StandardCharsets.UTF_8),
+                ids.decode(assignedToUserId),
+                ids.decode(companyId));
+        task.setVersion(version);
+        task.setExpiresAt(expiresAt);
+        return task;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    int getAssignedToUserId() {
+        return assignedToUserId;
+    }
+
+    int getCompanyId() {
+        return companyId;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    // Taille approximative en mémoire : l'objet, la chaîne de l'ID, le tableau de la description et l'échéance
+    long estimatedSizeInBytes() {
+        return 40 + 40 + id.length() + (description == null ? 0 : 16 + description.length) + (expiresAt == null ? 0 : 24);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.todolist.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaire d'identifiants : chaque valeur distincte (ID de compagnie, d'utilisateur) reçoit un entier,
+ * et une seule instance de la chaîne est conservée, quel que soit le nombre de tâches qui la référencent.
+ * <p>
+ * Les entrées ne sont jamais retirées : un même ID revient d'une tâche à l'autre, et leur nombre reste
+ * petit devant celui des tâches. Les lectures sont sans verrou ; seule l'attribution d'un nouvel entier est sérialisée.
+ */
+final class IdDictionary {
+
+    // Entier réservé à l'absence de valeur (ex. companyId nul)
+    static final int NONE = -1;
+
+    private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[1024];
+    private int size;
+
+    // Entier associé à la valeur, attribué au premier appel
+    int encode(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer handle = handles.get(value);
+        if (handle != null) {
+            return handle;
+        }
+        synchronized (this) {
+            handle = handles.get(value);
+            if (handle != null) {
+                return handle;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            // La valeur est écrite avant la publication de l'entier : tout lecteur qui obtient l'entier la voit
+            current[size] = value;
+            values = current;
+            handles.put(value, size);
+            return size++;
+        }
+    }
+
+    // Entier associé à la valeur, ou NONE si elle n'a jamais été vue (sans l'ajouter)
+    int lookup(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        return handles.getOrDefault(value, NONE);
+    }
+
+    String decode(int handle) {
+        return handle == NONE ? null : values[handle];
+    }
+
+    int size() {
+        return handles.size();
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Archive des tâches froides. Les tâches archivées sont encodées en binaire et regroupées en segments
+ * d'au plus {@value #SEGMENT_SIZE} tâches compressés ensemble (Deflate) ; seul l'index ID -> segment reste
+ * en clair. Une lecture décompresse le segment de la tâche : plus lente qu'une lecture de tâche active,
+ * mais sans verrou.
+ * <p>
+ * Une tâche retirée de l'archive laisse sa copie dans son segment ; {@link #compact()} réécrit les segments
+ * majoritairement périmés. Les ajouts et retraits d'une tâche sont faits par {@link TaskService} sous le verrou
+ * de cette tâche ; les modifications de la structure sont synchronisées entre elles.
+ */
+final class TaskArchive {
+
+    static final int SEGMENT_SIZE = 256;
+
+    // Tâches en attente du prochain segment, encodées mais pas encore compressées
+    private final Map<String, byte[]> openSegment = new ConcurrentHashMap<>();
+
+    // ID -> segment compressé qui contient la tâche
+    private final Map<String, Segment> segmentsByTaskId = new ConcurrentHashMap<>();
+
+    private final Set<Segment> segments = ConcurrentHashMap.newKeySet();
+
+    // Lecture sans verrou : une tâche est ajoutée à son nouvel emplacement avant d'être retirée de l'ancien
+    Task get(String taskId) {
+        byte[] record = openSegment.get(taskId);
+        if (record != null) {
+            return decode(record).get(0);
+        }
+        Segment segment = segmentsByTaskId.get(taskId);
+        return segment == null ? null : segment.find(taskId);
+    }
+
+    synchronized void put(Task task) {
+        remove(task.getId());
+        openSegment.put(task.getId(), encode(List.of(task)));
+        if (openSegment.size() >= SEGMENT_SIZE) {
+            seal();
+        }
+    }
+
+    synchronized boolean remove(String taskId) {
+        if (openSegment.remove(taskId) != null) {
+            return true;
+        }
+        Segment segment = segmentsByTaskId.remove(taskId);
+        if (segment == null) {
+            return false;
+        }
+        if (--segment.liveCount == 0) {
+            segments.remove(segment);
+        }
+        return true;
+    }
+
+    /**
+     * Réécrit les segments dont moins de la moitié des tâches sont encore archivées : leurs tâches
+     * rejoignent le segment ouvert, et l'espace occupé par les copies périmées est libéré.
+     *
+     * @return Nombre de segments réécrits.
+     */
+    synchronized int compact() {
+        int rewritten = 0;
+        for (Segment segment : new ArrayList<>(segments)) {
+            if (segment.liveCount * 2 >= SEGMENT_SIZE) {
+                continue;
+            }
+            for (Task task : decode(segment.inflate())) {
+                if (segmentsByTaskId.get(task.getId()) == segment) {
+                    openSegment.put(task.getId(), encode(List.of(task)));
+                    segmentsByTaskId.remove(task.getId());
+                    if (openSegment.size() >= SEGMENT_SIZE) {
+                        seal();
+                    }
+                }
+            }
+            segments.remove(segment);
+            rewritten++;
+        }
+        return rewritten;
+    }
+
+    // Toutes les tâches archivées, décompressées (déchargement d'une partition)
+    synchronized List<Task> getAll() {
+        List<Task> all = new ArrayList<>(size());
+        for (byte[] record : openSegment.values()) {
+            all.addAll(decode(record));
+        }
+        for (Segment segment : segments) {
+            for (Task task : decode(segment.inflate())) {
+                if (segmentsByTaskId.get(task.getId()) == segment) {
+                    all.add(task);
+                }
+            }
+        }
+        return all;
+    }
+
+    synchronized void clear() {
+        openSegment.clear();
+        segmentsByTaskId.clear();
+        segments.clear();
+    }
+
+    // Nombre de tâches archivées
+    int size() {
+        return openSegment.size() + segmentsByTaskId.size();
+    }
+
+    // Taille des tâches archivées, compressées ou en attente de compression
+    long getSizeInBytes() {
+        long bytes = 0;
+        for (byte[] record : openSegment.values()) {
+            bytes += record.length;
+        }
+        for (Segment segment : segments) {
+            bytes += segment.compressed.length;
+        }
+        return bytes;
+    }
+
+    // Compresse le segment ouvert ; ses tâches sont indexées sur le nouveau segment avant d'en être retirées
+    private void seal() {
+        List<Task> pending = new ArrayList<>(openSegment.size());
+        for (byte[] record : openSegment.values()) {
+            pending.addAll(decode(record));
+        }
+        Segment segment = new Segment(deflate(encode(pending)), pending.size());
+        segments.add(segment);
+        for (Task task : pending) {
+            segmentsByTaskId.put(task.getId(), segment);
+        }
+        openSegment.clear();
+    }
+
+    private static final class Segment {
+        private final byte[] compressed;
+        private int liveCount;
+
+        private Segment(byte[] compressed, int liveCount) {
+            this.compressed = compressed;
+            this.liveCount = liveCount;
+        }
+
+        private byte[] inflate() {
+            return TaskArchive.inflate(compressed);
+        }
+
+        private Task find(String taskId) {
+            for (Task task : decode(inflate())) {
+                if (task.getId().equals(taskId)) {
+                    return task;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Les fonctions d'encodage et de compression servent aussi au déchargement des partitions (TaskPartition)
+
+    static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (DeflaterOutputStream output = new DeflaterOutputStream(buffer, deflater)) {
+            output.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return buffer.toByteArray();
+    }
+
+    static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try (InflaterInputStream input = new InflaterInputStream(new ByteArrayInputStream(compressed), inflater)) {
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupted archive segment", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Encodage binaire : chaînes préfixées par leur longueur (-1 pour null), dates en secondes et nanosecondes
+    static byte[] encode(List<Task> tasks) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128 * tasks.size());
+        try (DataOutputStream output = new DataOutputStream(buffer)) {
+            for (Task task : tasks) {
+                writeString(output, task.getId());
+                writeString(output, task.getDescription());
+                writeString(output, task.getAssignedToUserId());
+                writeString(output, task.getCompanyId());
+                output.writeLong(task.getVersion());
+                writeInstant(output, task.getExpiresAt());
+                writeInstant(output, task.getArchivedAt());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    static List<Task> decode(byte[] bytes) {
+        List<Task> tasks = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            while (input.available() > 0) {
+                Task task = new Task(readString(input), readString(input), readString(input), readString(input));
+                task.setVersion(input.readLong());
+                task.setExpiresAt(readInstant(input));
+                task.setArchivedAt(readInstant(input));
+                tasks.add(task);
+            }
+        } catch (EOFException e) {
+            throw new IllegalStateException("Truncated archive record", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tasks;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInstant(DataOutputStream output, Instant value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value.getEpochSecond());
+            output.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream input) throws IOException {
+        return input.readBoolean() ? Instant.ofEpochSecond(input.readLong(), input.readInt()) : null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.todolist.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archivage en tâche de fond : à intervalle régulier, les tâches dont l'échéance ({@code expiresAt}) est passée
+ * sont déplacées par lots vers l'archive de {@link TaskService}, puis l'archive est compactée.
+ */
+@Component
+public class TaskArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+
+    private final TaskService taskService;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+
+    public TaskArchiver(TaskService taskService,
+                        @Value("${todolist.archive.enabled:true}") boolean enabled,
+                        @Value("${todolist.archive.interval:PT1M}") Duration interval,
+                        @Value("${todolist.archive.batch-size:10000}") int batchSize) {
+        this.taskService = taskService;
+        this.batchSize = batchSize;
+        if (!enabled) {
+            this.scheduler = null;
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::runQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Méthode pour archiver les tâches échues et compacter l'archive. Chaque lot prend les verrous de ses tâches
+     * une par une : les écritures concurrentes ne sont jamais bloquées pendant tout le passage.
+     *
+     * @return Nombre de tâches archivées.
+     */
+    public int archiveExpiredTasks() {
+        Instant now = Instant.now();
+        int total = 0;
+        int archived;
+        do {
+            archived = taskService.archiveExpiredTasks(now, batchSize);
+            total += archived;
+        } while (archived > 0 && archived == batchSize);
+        int rewritten = taskService.compactArchive();
+        if (total > 0 || rewritten > 0) {
+            log.debug("Archived {} tasks, rewrote {} archive segments", total, rewritten);
+        }
+        return total;
+    }
+
+    private void runQuietly() {
+        try {
+            archiveExpiredTasks();
+        } catch (RuntimeException e) {
+            log.error("Task archiving failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Task;
+
+/**
+ * Reçoit les écritures de {@link TaskService}. Appelé sous le verrou de la tâche concernée,
+ * ce qui garantit l'ordre des notifications pour une même tâche : l'implémentation ne doit pas bloquer.
+ */
+@FunctionalInterface
+public interface TaskChangeListener {
+
+    /**
+     * @param previous Tâche avant l'écriture, ou null pour une création.
+     * @param current  Tâche après l'écriture, ou null pour une suppression ou un archivage.
+     */
+    void onTaskChange(Task previous, Task current);
+}
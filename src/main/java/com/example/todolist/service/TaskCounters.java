@@ -0,0 +1,134 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.model.TaskStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nombre de tâches par compagnie, par utilisateur assigné et par couple (compagnie, utilisateur),
+ * tenus à jour à chaque écriture : un rapport se lit en O(nombre de groupes), sans parcourir les tâches.
+ * <p>
+ * Les mises à jour sont faites par {@link TaskService} sous le verrou de la tâche concernée ; les lectures
+ * sont faiblement cohérentes face aux écritures concurrentes. Un groupe vidé reste dans les compteurs
+ * (à zéro) et n'apparaît plus dans les rapports.
+ */
+class TaskCounters {
+
+    private final Map<String, LongAdder> byCompanyId = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byAssignedToUserId = new ConcurrentHashMap<>();
+
+    // companyId -> (assignedToUserId -> nombre), pour les rapports d'une seule compagnie ou d'un seul utilisateur
+    private final Map<String, Map<String, LongAdder>> byCompanyIdAndAssignedToUserId = new ConcurrentHashMap<>();
+
+    // assignedToUserId -> (companyId -> nombre) : mêmes compteurs, dans l'autre sens
+    private final Map<String, Map<String, LongAdder>> byAssignedToUserIdAndCompanyId = new ConcurrentHashMap<>();
+
+    void increment(Task task) {
+        add(task, 1);
+    }
+
+    void decrement(Task task) {
+        add(task, -1);
+    }
+
+    void clear() {
+        byCompanyId.clear();
+        byAssignedToUserId.clear();
+        byCompanyIdAndAssignedToUserId.clear();
+        byAssignedToUserIdAndCompanyId.clear();
+    }
+
+    // Toutes les tâches ; le total est celui du stockage, qui compte aussi les tâches sans compagnie ni utilisateur
+    TaskStats all(long total) {
+        return new TaskStats(total, snapshot(byCompanyId), snapshot(byAssignedToUserId));
+    }
+
+    // Tâches d'une compagnie, réparties par utilisateur assigné
+    TaskStats company(String companyId) {
+        long total = companyCount(companyId);
+        Map<String, Long> byCompany = total > 0 ? Map.of(companyId, total) : Map.of();
+        return new TaskStats(total, byCompany, snapshot(byCompanyIdAndAssignedToUserId.getOrDefault(companyId, Map.of())));
+    }
+
+    // Nombre de tâches d'une compagnie, sans répartition
+    long companyCount(String companyId) {
+        return sum(byCompanyId.get(companyId));
+    }
+
+    // Nombre de tâches assignées à un utilisateur, sans répartition
+    long assigneeCount(String userId) {
+        return sum(byAssignedToUserId.get(userId));
+    }
+
+    // Nombre d'utilisateurs assignés à au moins une tâche
+    int activeAssigneeCount() {
+        int count = 0;
+        for (LongAdder counter : byAssignedToUserId.values()) {
+            if (counter.sum() > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Compagnies où l'utilisateur a au moins une tâche assignée
+    List<String> companiesOfAssignee(String userId) {
+        List<String> companyIds = new ArrayList<>();
+        byAssignedToUserIdAndCompanyId.getOrDefault(userId, Map.of()).forEach((companyId, counter) -> {
+            if (counter.sum() > 0) {
+                companyIds.add(companyId);
+            }
+        });
+        return companyIds;
+    }
+
+    // Tâches assignées à un utilisateur, réparties par compagnie
+    TaskStats assignee(String userId) {
+        long total = assigneeCount(userId);
+        Map<String, Long> byCompany = snapshot(byAssignedToUserIdAndCompanyId.getOrDefault(userId, Map.of()));
+        Map<String, Long> byAssignee = total > 0 ? Map.of(userId, total) : Map.of();
+        return new TaskStats(total, byCompany, byAssignee);
+    }
+
+    // Les clés nulles (ex. companyId absent) ne sont pas comptées par groupe, comme dans les index
+    private void add(Task task, long delta) {
+        String companyId = task.getCompanyId();
+        String userId = task.getAssignedToUserId();
+        if (companyId != null) {
+            counter(byCompanyId, companyId).add(delta);
+        }
+        if (userId != null) {
+            counter(byAssignedToUserId, userId).add(delta);
+        }
+        if (companyId != null && userId != null) {
+            counter(byCompanyIdAndAssignedToUserId.computeIfAbsent(companyId, key -> new ConcurrentHashMap<>()), userId).add(delta);
+            counter(byAssignedToUserIdAndCompanyId.computeIfAbsent(userId, key -> new ConcurrentHashMap<>()), companyId).add(delta);
+        }
+    }
+
+    private static LongAdder counter(Map<String, LongAdder> counters, String key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static long sum(LongAdder counter) {
+        return counter == null ? 0 : counter.sum();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((key, counter) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                result.put(key, count);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.todolist.service;
+
+/**
+ * Levée quand une écriture ajouterait une tâche active à une compagnie qui a atteint son nombre maximal de tâches
+ * ({@code todolist.partitions.max-tasks-per-company}). Rien n'est écrit.
+ */
+public class TaskLimitExceededException extends RuntimeException {
+
+    private final String companyId;
+
+    public TaskLimitExceededException(String companyId, int limit) {
+        super("Company " + companyId + " already holds " + limit + " tasks");
+        this.companyId = companyId;
+    }
+
+    public String getCompanyId() {
+        return companyId;
+    }
+}
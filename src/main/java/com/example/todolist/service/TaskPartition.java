@@ -0,0 +1,409 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Partition des tâches d'une compagnie (ou des tâches sans compagnie) : ses tâches, leurs IDs triés, ses index
+ * par utilisateur assigné et par échéance, son archive et la version de son périmètre. Une opération limitée
+ * à une compagnie ne touche que sa partition : le rehachage, les allocations et la contention d'une compagnie
+ * très active restent dans ses propres structures.
+ * <p>
+ * Une partition peut être déchargée : ses tâches (actives et archivées) sont écrites, compressées, dans un fichier
+ * de débordement puis libérées ; elles sont rechargées au premier accès. Les écritures, faites par
+ * {@link TaskService} sous le verrou de la tâche, tiennent le verrou partagé de la partition ; le déchargement
+ * et le rechargement tiennent le verrou exclusif. Les lectures sont sans verrou et portent sur le contenu
+ * chargé au moment de l'appel.
+ */
+final class TaskPartition {
+
+    // Estimation du coût des entrées qui référencent une tâche : map, IDs triés, index par assigné
+    private static final long INDEX_ENTRY_BYTES = 96;
+
+    private final String companyId;
+
+    // Numéro de création, unique : il nomme le fichier de débordement
+    private final long order;
+
+    private final IdDictionary ids;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Contenu chargé, ou null si la partition est déchargée
+    private volatile Content content = new Content();
+
+    // Tenus à jour aussi quand la partition est déchargée
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+
+    // Fichier de débordement et nombre de tâches archivées qu'il contient, tant que la partition est déchargée
+    private volatile Path spillFile;
+    private volatile int spilledArchivedCount;
+
+    TaskPartition(String companyId, long order, IdDictionary ids) {
+        this.companyId = companyId;
+        this.order = order;
+        this.ids = ids;
+    }
+
+    String getCompanyId() {
+        return companyId;
+    }
+
+    // Nombre de tâches actives
+    int size() {
+        return size.get();
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    void bumpVersion(long newVersion) {
+        version.accumulateAndGet(newVersion, Math::max);
+    }
+
+    boolean isLoaded() {
+        return content != null;
+    }
+
+    // Lectures sans verrou ; une partition déchargée est rechargée
+
+    CompactTask get(String taskId) {
+        return content().tasks.get(taskId);
+    }
+
+    Task getArchived(String taskId) {
+        return content().archive.get(taskId);
+    }
+
+    // Tâches actives par ID croissant, à partir du curseur exclusif
+    Stream<CompactTask> stream(String afterTaskId) {
+        Content current = content();
+        return streamIds(current, current.taskIds, afterTaskId);
+    }
+
+    // Tâches actives assignées à un utilisateur par ID croissant ; l'appelant revérifie l'assigné de chaque tâche
+    Stream<CompactTask> streamByAssignedToUserId(String userId, String afterTaskId) {
+        Content current = content();
+        NavigableSet<String> taskIdsForUser = current.taskIdsByAssignedToUserId.get(userId);
+        return taskIdsForUser == null ? Stream.empty() : streamIds(current, taskIdsForUser, afterTaskId);
+    }
+
+    // IDs des tâches échues ; une partition déchargée n'est pas rechargée (ses tâches le seront au prochain passage)
+    List<String> expiredTaskIds(Instant now, int limit) {
+        Content current = content;
+        List<String> expired = new ArrayList<>();
+        if (current == null) {
+            return expired;
+        }
+        for (NavigableSet<String> taskIdsForSecond : current.taskIdsByExpiry.headMap(now.getEpochSecond(), true).values()) {
+            for (String taskId : taskIdsForSecond) {
+                if (expired.size() >= limit) {
+                    return expired;
+                }
+                expired.add(taskId);
+            }
+        }
+        return expired;
+    }
+
+    int compactArchive() {
+        Content current = content;
+        return current == null ? 0 : current.archive.compact();
+    }
+
+    int getArchivedTaskCount() {
+        Content current = content;
+        return current != null ? current.archive.size() : spilledArchivedCount;
+    }
+
+    long getArchiveSizeInBytes() {
+        Content current = content;
+        return current == null ? 0 : current.archive.getSizeInBytes();
+    }
+
+    // Taille estimée en mémoire (tâches actives, index et archive), ou taille du fichier de débordement si la partition est déchargée
+    long getSizeInBytes() {
+        Content current = content;
+        if (current == null) {
+            try {
+                return spillFile == null ? 0 : Files.size(spillFile);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+        long bytes = current.archive.getSizeInBytes();
+        for (CompactTask task : current.tasks.values()) {
+            bytes += task.estimatedSizeInBytes() + INDEX_ENTRY_BYTES;
+        }
+        return bytes;
+    }
+
+    // Écritures, sous le verrou de la tâche et le verrou partagé de la partition (voir tryLockForWrite)
+
+    /**
+     * Ajoute ou remplace une tâche active.
+     *
+     * @param previous Version précédente de la tâche si elle est active dans cette partition, sinon null.
+     */
+    void put(Task previous, CompactTask compactTask, Task task) {
+        Content current = content;
+        if (previous != null) {
+            unindex(current, previous);
+        }
+        if (current.tasks.put(task.getId(), compactTask) == null) {
+            size.incrementAndGet();
+        }
+        current.taskIds.add(task.getId());
+        addToIndex(current.taskIdsByAssignedToUserId, task.getAssignedToUserId(), task.getId());
+        addToIndex(current.taskIdsByExpiry, expiryKey(task), task.getId());
+    }
+
+    void remove(Task previous) {
+        Content current = content;
+        unindex(current, previous);
+        current.taskIds.remove(previous.getId());
+        if (current.tasks.remove(previous.getId()) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    void putArchived(Task task) {
+        content.archive.put(task);
+    }
+
+    void removeArchived(String taskId) {
+        content.archive.remove(taskId);
+    }
+
+    /**
+     * Recharge les partitions qu'une écriture va toucher, et attend la fin d'un déchargement ou d'un rechargement
+     * en cours. Appelée hors de tout verrou, avant d'entrer dans la section critique de la tâche : la lecture
+     * du fichier et l'attente du verrou exclusif ne s'y font jamais.
+     */
+    static void prepareForWrite(TaskPartition first, TaskPartition second) {
+        for (TaskPartition partition : new TaskPartition[]{first, second}) {
+            if (partition != null && (partition.content == null || partition.lock.isWriteLocked())) {
+                partition.load();
+            }
+        }
+    }
+
+    /**
+     * Prend sans attendre le verrou partagé d'une ou deux partitions chargées. Appelée sous le verrou de la tâche :
+     * si l'une est déchargée ou en cours de déchargement, aucun verrou n'est gardé et l'appelant sort de sa section
+     * critique, appelle {@link #prepareForWrite} puis recommence.
+     *
+     * @return true si les verrous sont pris.
+     */
+    static boolean tryLockForWrite(TaskPartition first, TaskPartition second) {
+        if (first == null || first == second) {
+            first = second;
+            second = null;
+        }
+        if (!first.tryLockLoaded()) {
+            return false;
+        }
+        if (second != null && !second.tryLockLoaded()) {
+            first.lock.readLock().unlock();
+            return false;
+        }
+        return true;
+    }
+
+    static void unlockForWrite(TaskPartition first, TaskPartition second) {
+        if (first != null) {
+            first.lock.readLock().unlock();
+        }
+        if (second != null && second != first) {
+            second.lock.readLock().unlock();
+        }
+    }
+
+    // Le verrou partagé est pris sans attendre un déchargement en cours, et gardé seulement si la partition est chargée
+    private boolean tryLockLoaded() {
+        if (!lock.readLock().tryLock()) {
+            return false;
+        }
+        if (content != null) {
+            return true;
+        }
+        lock.readLock().unlock();
+        return false;
+    }
+
+    /**
+     * Décharge la partition : ses tâches actives et archivées sont écrites, compressées, dans un fichier du répertoire,
+     * puis libérées. Les lectures en cours finissent sur le contenu qu'elles ont déjà obtenu.
+     *
+     * @param directory Répertoire de débordement.
+     * @return true si la partition était chargée.
+     */
+    boolean evict(Path directory) {
+        lock.writeLock().lock();
+        try {
+            Content current = content;
+            if (current == null) {
+                return false;
+            }
+            List<Task> spilled = new ArrayList<>(current.tasks.size() + current.archive.size());
+            for (CompactTask task : current.tasks.values()) {
+                spilled.add(task.toTask(ids));
+            }
+            List<Task> archived = current.archive.getAll();
+            spilled.addAll(archived);
+            Path file = directory.resolve("partition-" + order + ".bin");
+            Files.write(file, TaskArchive.deflate(TaskArchive.encode(spilled)));
+            spillFile = file;
+            spilledArchivedCount = archived.size();
+            content = null;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill partition of company " + companyId, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recharge la partition depuis son fichier de débordement, qui est ensuite supprimé.
+     *
+     * @return true si la partition était déchargée.
+     */
+    boolean load() {
+        lock.writeLock().lock();
+        try {
+            if (content != null) {
+                return false;
+            }
+            Content loaded = new Content();
+            for (Task task : TaskArchive.decode(TaskArchive.inflate(Files.readAllBytes(spillFile)))) {
+                if (task.getArchivedAt() != null) {
+                    loaded.archive.put(task);
+                    continue;
+                }
+                loaded.tasks.put(task.getId(), CompactTask.of(task, ids));
+                loaded.taskIds.add(task.getId());
+                addToIndex(loaded.taskIdsByAssignedToUserId, task.getAssignedToUserId(), task.getId());
+                addToIndex(loaded.taskIdsByExpiry, expiryKey(task), task.getId());
+            }
+            content = loaded;
+            deleteSpillFile();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load partition of company " + companyId, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Vide la partition, chargée ou non ; sa version avance pour invalider les listes déjà servies
+    void clear(long newVersion) {
+        lock.writeLock().lock();
+        try {
+            content = new Content();
+            size.set(0);
+            deleteSpillFile();
+            bumpVersion(newVersion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void deleteSpillFile() {
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            // Fichier orphelin : il sera écrasé au prochain déchargement de la partition
+        }
+        spillFile = null;
+        spilledArchivedCount = 0;
+    }
+
+    private Content content() {
+        Content current = content;
+        while (current == null) {
+            load();
+            current = content;
+        }
+        return current;
+    }
+
+    private static void unindex(Content current, Task task) {
+        removeFromIndex(current.taskIdsByAssignedToUserId, task.getAssignedToUserId(), task.getId());
+        removeFromIndex(current.taskIdsByExpiry, expiryKey(task), task.getId());
+    }
+
+    private static Long expiryKey(Task task) {
+        return task.getExpiresAt() == null ? null : task.getExpiresAt().getEpochSecond();
+    }
+
+    // Ajout et retrait passent par compute() pour ne pas perdre un ID face à la suppression d'un ensemble vide
+    private static <K> void addToIndex(Map<K, NavigableSet<String>> index, K key, String taskId) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, taskIds) -> {
+            NavigableSet<String> result = taskIds != null ? taskIds : new ConcurrentSkipListSet<>();
+            result.add(taskId);
+            return result;
+        });
+    }
+
+    private static <K> void removeFromIndex(Map<K, NavigableSet<String>> index, K key, String taskId) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, taskIds) -> {
+            taskIds.remove(taskId);
+            return taskIds.isEmpty() ? null : taskIds;
+        });
+    }
+
+    // Les ensembles d'IDs sont faiblement cohérents : une tâche supprimée pendant le parcours est ignorée
+    private static Stream<CompactTask> streamIds(Content current, NavigableSet<String> taskIdsInRange, String afterTaskId) {
+        NavigableSet<String> range = afterTaskId == null ? taskIdsInRange : taskIdsInRange.tailSet(afterTaskId, false);
+        return range.stream()
+                .map(current.tasks::get)
+                .filter(Objects::nonNull);
+    }
+
+    // Contenu chargé d'une partition : remplacé en bloc au déchargement et au rechargement
+    private static final class Content {
+
+        // Lectures sans verrou ; tâches stockées sous forme compacte
+        private final Map<String, CompactTask> tasks = new ConcurrentHashMap<>();
+
+        // IDs triés, pour une itération ordonnée et la pagination par curseur
+        private final NavigableSet<String> taskIds = new ConcurrentSkipListSet<>();
+
+        // assignedToUserId -> IDs des tâches
+        private final Map<String, NavigableSet<String>> taskIdsByAssignedToUserId = new ConcurrentHashMap<>();
+
+        // Seconde d'expiration -> IDs des tâches
+        private final ConcurrentSkipListMap<Long, NavigableSet<String>> taskIdsByExpiry = new ConcurrentSkipListMap<>();
+
+        // Tâches archivées de la partition, lisibles uniquement par ID
+        private final TaskArchive archive = new TaskArchive();
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Task;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé sur {@link Task#getDescription()} : terme -> (ID de tâche -> fréquence du terme).
+ * <p>
+ * Les termes sont normalisés pour le français et l'anglais : minuscules, accents retirés, mots vides
+ * et élisions (l', d', ...) ignorés, pluriels en -s ramenés au singulier. Les termes sont triés,
+ * ce qui permet les requêtes par préfixe ({@code prés*}). Le classement est un TF-IDF.
+ * <p>
+ * Les mises à jour sont faites par {@link TaskService} sous le verrou de la tâche concernée.
+ */
+class TaskSearchIndex {
+
+    // Nombre maximal de termes développés pour un préfixe
+    private static final int MAX_PREFIX_EXPANSION = 64;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}*]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            // Français
+            "au", "aux", "avec", "ce", "ces", "dans", "de", "des", "du", "elle", "en", "et", "il", "je", "la", "le",
+            "les", "leur", "lui", "ma", "mais", "me", "mes", "ne", "nos", "notre", "nous", "on", "ou", "par", "pas",
+            "pour", "qu", "que", "qui", "sa", "se", "ses", "son", "sur", "ta", "te", "tes", "ton", "tu", "un", "une",
+            "vos", "votre", "vous",
+            // Anglais
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "or",
+            "that", "the", "this", "to", "was", "with");
+
+    private final ConcurrentSkipListMap<String, Map<String, Integer>> postings = new ConcurrentSkipListMap<>();
+
+    // Nombre de tâches indexées, pour le calcul de l'IDF
+    private final Map<String, Boolean> indexedTaskIds = new ConcurrentHashMap<>();
+
+    void index(Task task) {
+        Map<String, Integer> frequencies = termFrequencies(task.getDescription());
+        if (frequencies.isEmpty()) {
+            return;
+        }
+        indexedTaskIds.put(task.getId(), Boolean.TRUE);
+        frequencies.forEach((term, frequency) -> postings.compute(term, (t, taskFrequencies) -> {
+            Map<String, Integer> result = taskFrequencies != null ? taskFrequencies : new ConcurrentHashMap<>();
+            result.put(task.getId(), frequency);
+            return result;
+        }));
+    }
+
+    void unindex(Task task) {
+        Map<String, Integer> frequencies = termFrequencies(task.getDescription());
+        if (frequencies.isEmpty()) {
+            return;
+        }
+        indexedTaskIds.remove(task.getId());
+        for (String term : frequencies.keySet()) {
+            postings.computeIfPresent(term, (t, taskFrequencies) -> {
+                taskFrequencies.remove(task.getId());
+                return taskFrequencies.isEmpty() ? null : taskFrequencies;
+            });
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        indexedTaskIds.clear();
+    }
+
+    /**
+     * Recherche les tâches les plus pertinentes, sans parcourir l'ensemble des tâches :
+     * seules les listes de tâches des termes de la requête sont lues.
+     *
+     * @param query   Texte recherché ; un mot terminé par {@code *} est un préfixe.
+     * @param lookup  Résolution d'un ID en tâche (null si supprimée entre-temps).
+     * @param visible Filtre de visibilité de l'appelant.
+     * @param limit   Nombre maximal de résultats.
+     * @return Tâches visibles, de la plus pertinente à la moins pertinente.
+     */
+    List<Task> search(String query, Function<String, Task> lookup, Predicate<Task> visible, int limit) {
+        Map<String, Double> scores = new HashMap<>();
+        double taskCount = Math.max(1, indexedTaskIds.size());
+        for (String token : tokenize(query)) {
+            for (Map.Entry<String, Map<String, Integer>> posting : matchingPostings(token)) {
+                Map<String, Integer> taskFrequencies = posting.getValue();
+                double idf = Math.log(1 + taskCount / Math.max(1, taskFrequencies.size()));
+                taskFrequencies.forEach((taskId, frequency) -> scores.merge(taskId, frequency * idf, Double::sum));
+            }
+        }
+
+        // Tas borné à limit : le moins bon résultat retenu est en tête
+        Comparator<Map.Entry<String, Double>> ranking = Map.Entry.<String, Double>comparingByValue()
+                .thenComparing(Map.Entry.<String, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(ranking);
+        Map<String, Task> resolved = new HashMap<>();
+        for (Map.Entry<String, Double> candidate : scores.entrySet()) {
+            if (best.size() == limit && ranking.compare(candidate, best.peek()) <= 0) {
+                continue;
+            }
+            Task task = lookup.apply(candidate.getKey());
+            if (task == null || !visible.test(task)) {
+                continue;
+            }
+            resolved.put(candidate.getKey(), task);
+            best.add(candidate);
+            if (best.size() > limit) {
+                resolved.remove(best.poll().getKey());
+            }
+        }
+
+        List<Task> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(resolved.get(best.poll().getKey()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private List<Map.Entry<String, Map<String, Integer>>> matchingPostings(String token) {
+        if (!token.endsWith("*")) {
+            Map<String, Integer> taskFrequencies = postings.get(token);
+            return taskFrequencies == null ? List.of() : List.of(Map.entry(token, taskFrequencies));
+        }
+        String prefix = token.substring(0, token.length() - 1);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<String, Map<String, Integer>>> matches = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Integer>> posting : postings.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+            matches.add(posting);
+            if (matches.size() == MAX_PREFIX_EXPANSION) {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    private static Map<String, Integer> termFrequencies(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(text)) {
+            if (!token.endsWith("*")) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+        }
+        return frequencies;
+    }
+
+    // Découpe et normalise un texte ; le marqueur de préfixe * est conservé en fin de terme
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String word : SEPARATORS.split(normalized)) {
+            boolean prefix = word.endsWith("*");
+            String term = word.replace("*", "");
+            if (prefix && !term.isEmpty()) {
+                // Pas de réduction du pluriel sur un préfixe : elle l'élargirait (pres* deviendrait pre*)
+                tokens.add(term + "*");
+            } else if (term.length() > 1 && !STOP_WORDS.contains(term)) {
+                tokens.add(stem(term));
+            }
+        }
+        return tokens;
+    }
+
+    // Réduction légère du pluriel, commune au français et à l'anglais
+    private static String stem(String term) {
+        if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss")) {
+            return term.substring(0, term.length() - 1);
+        }
+        return term;
+    }
+}
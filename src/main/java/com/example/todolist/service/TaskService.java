@@ -2,19 +2,138 @@ package com.example.todolist.service;
 
 import com.example.todolist.model.Role;
 import com.example.todolist.model.Task;
+import com.example.todolist.model.TaskStats;
+import com.example.todolist.model.TenantUsage;
+import com.example.todolist.persistence.Journal;
+import com.example.todolist.persistence.JournalEntry;
+import com.example.todolist.tracing.RequestTrace;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 public class TaskService {
 
-    private Map<String, Task> tasks = new HashMap<>();
+    // Dictionnaire des IDs de compagnie et d'utilisateur référencés par les tâches stockées
+    private final IdDictionary ids = new IdDictionary();
+
+    // Les tâches sont rangées par compagnie, chacune dans sa partition (tâches, index, archive, version) ;
+    // les tâches sans compagnie ont leur propre partition
+    private final AtomicLong partitionOrder = new AtomicLong();
+    private final Map<String, TaskPartition> partitions = new ConcurrentHashMap<>();
+    private final TaskPartition unassignedPartition = new TaskPartition(null, partitionOrder.getAndIncrement(), ids);
+
+    // Répertoire des tâches actives et archivées : ID -> partition. Lectures sans verrou ; les écritures
+    // sont sérialisées par clé via compute(), y compris quand une tâche change de compagnie
+    private final Map<String, TaskPartition> partitionsByTaskId = new ConcurrentHashMap<>();
+
+    // IDs triés de toutes les tâches actives, pour la liste complète (Super User) et la pagination par curseur
+    private final NavigableSet<String> taskIds = new ConcurrentSkipListSet<>();
+
+    // Index plein texte sur la description, commun à toutes les compagnies pour un classement unique
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+
+    // Nombre de tâches par compagnie et par utilisateur assigné
+    private final TaskCounters counters = new TaskCounters();
+
+    // Compteur de versions ; il part de l'heure de démarrage pour ne pas réutiliser après un redémarrage
+    // une version déjà servie (et mise en cache par un client via son ETag)
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    // Dernière version écrite par utilisateur assigné ; celle d'une compagnie est tenue par sa partition
+    private final Map<String, Long> versionsByAssignedToUserId = new ConcurrentHashMap<>();
+
+    // Abonnés aux écritures (flux de changements)
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Journal des écritures (sans effet si la persistance est désactivée)
+    private final Journal<Task> journal;
+
+    // Parcours parallèle des grandes listes, sur un pool dédié pour ne pas occuper le pool commun
+    private final ForkJoinPool scanPool;
+    private final long parallelScanThreshold;
+
+    // Nombre maximal de tâches actives par compagnie (0 : illimité)
+    private final int maxTasksPerCompany;
+
+    // Répertoire des fichiers de débordement des partitions déchargées ; un sous-répertoire par instance, créé au premier déchargement.
+    // Sa création et sa suppression font des entrées/sorties : elles se font sous un ReentrantLock, jamais sous un moniteur
+    private final Path spillParentDirectory;
+    private final ReentrantLock spillDirectoryLock = new ReentrantLock();
+    private volatile Path spillDirectory;
 
     public TaskService() {
+        this(Journal.noop());
+    }
+
+    public TaskService(Journal<Task> journal) {
+        this(journal, 50_000, 0);
+    }
+
+    public TaskService(Journal<Task> journal, long parallelScanThreshold, int parallelism) {
+        this(journal, parallelScanThreshold, parallelism, 0, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param journal               Journal des écritures.
+     * @param parallelScanThreshold Nombre de tâches du périmètre à partir duquel une liste est construite en parallèle.
+     * @param parallelism           Nombre de threads du pool de parcours (0 pour le nombre de processeurs).
+     * @param maxTasksPerCompany    Nombre maximal de tâches actives par compagnie (0 pour illimité).
+     * @param spillDirectory        Répertoire des fichiers de débordement des compagnies déchargées.
+     */
+    @Autowired
+    public TaskService(Journal<Task> journal,
+                       @Value("${todolist.parallel-scan.threshold:50000}") long parallelScanThreshold,
+                       @Value("${todolist.parallel-scan.parallelism:0}") int parallelism,
+                       @Value("${todolist.partitions.max-tasks-per-company:0}") int maxTasksPerCompany,
+                       @Value("${todolist.partitions.spill-directory:${java.io.tmpdir}}") Path spillDirectory) {
+        this.journal = journal;
+        this.parallelScanThreshold = parallelScanThreshold;
+        this.maxTasksPerCompany = maxTasksPerCompany;
+        this.spillParentDirectory = spillDirectory;
+        this.scanPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("task-scan-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+
+        // Rejeu des écritures persistées ; les tâches initiales ne sont créées que si le journal est vide
+        if (journal.replay(this::applyReplayed) > 0) {
+            return;
+        }
+
         // Initialisation des tâches
         addTask(new Task("task1", "Finish the report", "user1", "company1"));
         addTask(new Task("task2", "Prepare the presentation", "user2", "company1"));
@@ -23,31 +142,760 @@ public class TaskService {
 
     // Méthode pour vider la map des tâches
     public void clearTasks() {
-        tasks.clear();
+        long sequence = journal.append(JournalEntry.clear());
+        clearInMemory();
+        awaitDurable(sequence);
     }
 
-    // Méthode pour ajouter une tâche
+    // Version de l'ensemble des tâches : change à chaque écriture
+    public long getVersion() {
+        return versions.get();
+    }
+
+    // Version des tâches d'une compagnie : change à chaque écriture d'une tâche qui y entre, y reste ou en sort
+    public long getCompanyVersion(String companyId) {
+        TaskPartition partition = companyId == null ? null : partitions.get(companyId);
+        return partition == null ? 0 : partition.getVersion();
+    }
+
+    // Version des tâches assignées à un utilisateur
+    public long getAssigneeVersion(String userId) {
+        return userId == null ? 0 : versionsByAssignedToUserId.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Méthode pour ajouter une tâche.
+     *
+     * @throws TaskLimitExceededException si la compagnie de la tâche a atteint son nombre maximal de tâches.
+     */
     public void addTask(Task task) {
-        tasks.put(task.getId(), task);
+        awaitDurable(store(task.getId(), task, true));
+    }
+
+    /**
+     * Méthode pour ajouter plusieurs tâches en un seul passage, avec une seule attente de durabilité.
+     *
+     * @return IDs des tâches refusées parce que leur compagnie a atteint son nombre maximal de tâches.
+     */
+    public List<String> addTasks(Collection<Task> newTasks) {
+        long sequence = 0;
+        List<String> refused = new ArrayList<>();
+        for (Task task : newTasks) {
+            try {
+                sequence = Math.max(sequence, store(task.getId(), task, true));
+            } catch (TaskLimitExceededException e) {
+                refused.add(task.getId());
+            }
+        }
+        awaitDurable(sequence);
+        return refused;
     }
 
     // Méthode pour obtenir toutes les tâches
     public Collection<Task> getAllTasks() {
-        return tasks.values();
+        return streamAllTasks(null).collect(Collectors.toList());
+    }
+
+    // Méthode pour obtenir les tâches d'une compagnie, en O(nombre de résultats)
+    public List<Task> getTasksByCompanyId(String companyId) {
+        return listTasksByCompanyId(companyId, null);
+    }
+
+    // Méthode pour obtenir les tâches assignées à un utilisateur, en O(nombre de résultats)
+    public List<Task> getTasksByAssignedToUserId(String userId) {
+        return listTasksByAssignedToUserId(userId, null);
+    }
+
+    /**
+     * Liste toutes les tâches par ID croissant. Au-delà du seuil de parcours parallèle, les segments de l'index
+     * trié (plages d'IDs) sont reconstruits en parallèle puis concaténés dans l'ordre.
+     *
+     * @param afterTaskId Curseur exclusif (null pour partir du début).
+     * @return Tâches ordonnées par ID.
+     */
+    public List<Task> listAllTasks(String afterTaskId) {
+        return collect(streamAll(afterTaskId), getTaskCount());
+    }
+
+    // Liste les tâches d'une compagnie par ID croissant, en parallèle au-delà du seuil ; seule sa partition est lue
+    public List<Task> listTasksByCompanyId(String companyId, String afterTaskId) {
+        TaskPartition partition = companyId == null ? null : partitions.get(companyId);
+        return partition == null ? new ArrayList<>() : collect(partition.stream(afterTaskId), partition.size());
+    }
+
+    // Liste les tâches assignées à un utilisateur par ID croissant, en parallèle au-delà du seuil
+    public List<Task> listTasksByAssignedToUserId(String userId, String afterTaskId) {
+        long estimatedSize = userId == null ? 0 : counters.assigneeCount(userId);
+        return collect(streamAssignee(userId, afterTaskId), estimatedSize);
+    }
+
+    /**
+     * Parcourt toutes les tâches par ID croissant, de façon paresseuse.
+     *
+     * @param afterTaskId Curseur exclusif : seules les tâches d'ID strictement supérieur sont renvoyées (null pour partir du début).
+     * @return Flux ordonné des tâches.
+     */
+    public Stream<Task> streamAllTasks(String afterTaskId) {
+        return streamAll(afterTaskId).map(this::materialize);
+    }
+
+    // Parcourt les tâches d'une compagnie par ID croissant, à partir du curseur exclusif ; seule sa partition est lue
+    public Stream<Task> streamTasksByCompanyId(String companyId, String afterTaskId) {
+        TaskPartition partition = companyId == null ? null : partitions.get(companyId);
+        return partition == null ? Stream.empty() : partition.stream(afterTaskId).map(this::materialize);
+    }
+
+    // Parcourt les tâches assignées à un utilisateur par ID croissant, à partir du curseur exclusif
+    public Stream<Task> streamTasksByAssignedToUserId(String userId, String afterTaskId) {
+        return streamAssignee(userId, afterTaskId).map(this::materialize);
     }
 
-    // Méthode pour trouver une tâche par ID
+    // Méthode pour s'abonner aux créations, mises à jour et suppressions de tâches
+    public void addListener(TaskChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    // Nombre de tâches actives, y compris celles des compagnies déchargées
+    public int getTaskCount() {
+        int count = unassignedPartition.size();
+        for (TaskPartition partition : partitions.values()) {
+            count += partition.size();
+        }
+        return count;
+    }
+
+    // Nombre de tâches archivées
+    public int getArchivedTaskCount() {
+        int count = 0;
+        for (TaskPartition partition : allPartitions()) {
+            count += partition.getArchivedTaskCount();
+        }
+        return count;
+    }
+
+    // Taille des archives chargées, en octets compressés
+    public long getArchiveSizeInBytes() {
+        long bytes = 0;
+        for (TaskPartition partition : allPartitions()) {
+            bytes += partition.getArchiveSizeInBytes();
+        }
+        return bytes;
+    }
+
+    // Nombre de compagnies qui ont au moins une tâche active
+    public int getCompanyCount() {
+        int count = 0;
+        for (TaskPartition partition : partitions.values()) {
+            if (partition.size() > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Nombre d'utilisateurs assignés à au moins une tâche active
+    public int getAssigneeCount() {
+        return counters.activeAssigneeCount();
+    }
+
+    // Nombre de tâches par compagnie et par utilisateur assigné, sur l'ensemble des tâches
+    public TaskStats getStats() {
+        return counters.all(getTaskCount());
+    }
+
+    // Nombre de tâches d'une compagnie, par utilisateur assigné
+    public TaskStats getCompanyStats(String companyId) {
+        return counters.company(companyId);
+    }
+
+    // Nombre de tâches assignées à un utilisateur, par compagnie
+    public TaskStats getAssigneeStats(String userId) {
+        return counters.assignee(userId);
+    }
+
+    /**
+     * Recherche plein texte sur la description des tâches, classée par pertinence.
+     *
+     * @param query   Texte recherché ; un mot terminé par {@code *} est un préfixe.
+     * @param visible Filtre de visibilité de l'appelant.
+     * @param limit   Nombre maximal de résultats.
+     * @return Les tâches visibles les plus pertinentes.
+     */
+    public List<Task> searchTasks(String query, Predicate<Task> visible, int limit) {
+        long start = RequestTrace.start();
+        List<Task> result = searchIndex.search(query, taskId -> materialize(lookup(taskId)), visible, limit);
+        RequestTrace.end(RequestTrace.SEARCH, start);
+        return result;
+    }
+
+    /**
+     * Méthode pour trouver une tâche par ID, parmi les tâches actives puis dans l'archive (lecture plus lente).
+     * Une tâche archivée est renvoyée avec sa date d'archivage.
+     */
     public Optional<Task> getTaskById(String taskId) {
-        return Optional.ofNullable(tasks.get(taskId));
+        long start = RequestTrace.start();
+        TaskPartition partition = partitionsByTaskId.get(taskId);
+        Task task = find(partition, taskId);
+        if (task == null) {
+            // La tâche a pu changer de compagnie entre la lecture du répertoire et celle de la partition
+            TaskPartition moved = partitionsByTaskId.get(taskId);
+            if (moved != partition) {
+                task = find(moved, taskId);
+            }
+        }
+        RequestTrace.end(RequestTrace.LOOKUP, start);
+        return Optional.ofNullable(task);
+    }
+
+    /**
+     * Archive les tâches dont l'échéance est passée : elles quittent les tâches actives de leur partition et tous les index
+     * (listes, recherche, compteurs), et restent lisibles par {@link #getTaskById(String)}. Une mise à jour
+     * ramène la tâche parmi les tâches actives. L'archivage n'est pas journalisé : après un redémarrage,
+     * les tâches échues rejouées depuis le journal sont archivées de nouveau au passage suivant.
+     *
+     * @param now   Date de référence.
+     * @param limit Nombre maximal de tâches archivées.
+     * @return Nombre de tâches archivées.
+     */
+    public int archiveExpiredTasks(Instant now, int limit) {
+        int archived = 0;
+        for (TaskPartition partition : allPartitions()) {
+            for (String taskId : partition.expiredTaskIds(now, limit - archived)) {
+                if (archive(taskId, now)) {
+                    archived++;
+                }
+            }
+        }
+        return archived;
+    }
+
+    // Réécrit les segments des archives occupés surtout par des copies périmées ; renvoie le nombre de segments réécrits
+    public int compactArchive() {
+        int rewritten = 0;
+        for (TaskPartition partition : allPartitions()) {
+            rewritten += partition.compactArchive();
+        }
+        return rewritten;
+    }
+
+    /**
+     * Occupation mémoire de chaque compagnie : nombre de tâches actives et archivées, taille estimée de sa partition
+     * (ou de son fichier de débordement si elle est déchargée). Les tâches sans compagnie apparaissent avec un companyId nul.
+     *
+     * @return Une entrée par compagnie qui a des tâches actives ou archivées, par companyId croissant.
+     */
+    public List<TenantUsage> getTenantUsage() {
+        List<TenantUsage> usage = new ArrayList<>();
+        for (TaskPartition partition : allPartitions()) {
+            if (partition.size() > 0 || partition.getArchivedTaskCount() > 0) {
+                usage.add(usage(partition));
+            }
+        }
+        usage.sort(Comparator.comparing(TenantUsage::getCompanyId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return usage;
+    }
+
+    // Occupation mémoire d'une compagnie
+    public Optional<TenantUsage> getTenantUsage(String companyId) {
+        return Optional.ofNullable(companyId == null ? null : partitions.get(companyId)).map(this::usage);
+    }
+
+    /**
+     * Décharge les tâches d'une compagnie : sa partition est écrite, compressée, dans un fichier de débordement
+     * puis libérée. Elle est rechargée au premier accès (lecture, écriture ou liste). Les compteurs, l'index
+     * plein texte et le répertoire des IDs restent en mémoire.
+     *
+     * @param companyId ID de la compagnie.
+     * @return true si la compagnie était chargée.
+     */
+    public boolean evictCompany(String companyId) {
+        TaskPartition partition = companyId == null ? null : partitions.get(companyId);
+        return partition != null && partition.evict(spillDirectory());
+    }
+
+    // Recharge les tâches d'une compagnie déchargée ; renvoie true si elle était déchargée
+    public boolean loadCompany(String companyId) {
+        TaskPartition partition = companyId == null ? null : partitions.get(companyId);
+        return partition != null && partition.load();
     }
 
     // Méthode pour mettre à jour une tâche
     public void updateTask(Task updatedTask) {
-        tasks.put(updatedTask.getId(), updatedTask);
+        addTask(updatedTask);
+    }
+
+    /**
+     * Remplace atomiquement une tâche si elle n'a pas été modifiée depuis sa lecture par l'appelant.
+     * La comparaison porte sur la version : chaque écriture en attribue une nouvelle, et getTaskById
+     * renvoie une nouvelle instance à chaque appel.
+     *
+     * @param expectedTask Tâche lue précédemment via getTaskById.
+     * @param updatedTask  Nouvelle version de la tâche (même ID) ; sa version est attribuée ici.
+     * @return true si le remplacement a eu lieu, false si la tâche a changé ou a été supprimée entre-temps.
+     */
+    public boolean replaceTask(Task expectedTask, Task updatedTask) {
+        long sequence = replace(expectedTask, updatedTask);
+        awaitDurable(sequence);
+        return sequence >= 0;
+    }
+
+    // Les variantes suivantes écrivent sans attendre la durabilité : l'appelant (pipeline d'écriture) attend
+    // une seule fois pour tout un lot, via awaitDurable()
+
+    long putDeferred(Task task) {
+        return store(task.getId(), task, true);
+    }
+
+    long deleteDeferred(String taskId) {
+        return store(taskId, null, true);
+    }
+
+    // Numéro de séquence du journal, ou -1 si la tâche a changé ou a été supprimée
+    long replaceDeferred(Task expectedTask, Task updatedTask) {
+        return replace(expectedTask, updatedTask);
+    }
+
+    void awaitDurable(long sequence) {
+        long start = RequestTrace.start();
+        journal.awaitDurable(sequence);
+        RequestTrace.end(RequestTrace.JOURNAL, start);
+    }
+
+    private long replace(Task expectedTask, Task updatedTask) {
+        TaskPartition target = partition(updatedTask.getCompanyId());
+        Task[] replaced = {null};
+        long[] sequence = {0};
+        boolean[] retry = {false};
+        do {
+            TaskPartition.prepareForWrite(partitionsByTaskId.get(updatedTask.getId()), target);
+            retry[0] = false;
+            partitionsByTaskId.computeIfPresent(updatedTask.getId(), (taskId, current) -> {
+                if (!TaskPartition.tryLockForWrite(current, target)) {
+                    retry[0] = true;
+                    return current;
+                }
+                try {
+                    CompactTask stored = current.get(taskId);
+                    Task previous;
+                    if (stored != null) {
+                        if (stored.getVersion() != expectedTask.getVersion()) {
+                            return current;
+                        }
+                        previous = materialize(stored);
+                    } else {
+                        // Tâche archivée : la mise à jour la ramène parmi les tâches actives
+                        previous = current.getArchived(taskId);
+                        if (previous == null || previous.getVersion() != expectedTask.getVersion()) {
+                            return current;
+                        }
+                    }
+                    Task active = stored != null ? previous : null;
+                    checkCapacity(target, current, active);
+                    updatedTask.setVersion(versions.incrementAndGet());
+                    updatedTask.setArchivedAt(null);
+                    sequence[0] = journal.append(JournalEntry.put(taskId, updatedTask));
+                    notifyListeners(previous, updatedTask);
+                    if (stored == null) {
+                        current.removeArchived(taskId);
+                    }
+                    replaced[0] = previous;
+                    return move(taskId, current, active, target, updatedTask);
+                } finally {
+                    TaskPartition.unlockForWrite(current, target);
+                }
+            });
+        } while (retry[0]);
+        if (replaced[0] == null) {
+            return -1;
+        }
+        bumpScopeVersions(replaced[0], updatedTask);
+        return sequence[0];
     }
 
     // Méthode pour supprimer une tâche
     public void deleteTask(String taskId) {
-        tasks.remove(taskId);
+        awaitDurable(store(taskId, null, true));
+    }
+
+    // Méthode pour supprimer plusieurs tâches en un seul passage, avec une seule attente de durabilité
+    public void deleteTasks(Collection<String> taskIdsToDelete) {
+        long sequence = 0;
+        for (String taskId : taskIdsToDelete) {
+            sequence = Math.max(sequence, store(taskId, null, true));
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Méthode privée qui écrit ou supprime une tâche en mémoire et met à jour les index, sous le verrou de la clé
+     * et celui des partitions concernées ; l'opération est journalisée dans la même section critique pour garder l'ordre par clé.
+     *
+     * @param taskId    ID de la tâche.
+     * @param task      Nouvelle tâche, ou null pour une suppression.
+     * @param journaled true pour journaliser l'opération et attribuer une version (false lors du rejeu).
+     * @return Numéro de séquence du journal (0 si rien n'a été journalisé).
+     * @throws TaskLimitExceededException si la tâche est nouvelle dans une compagnie qui a atteint son nombre maximal de tâches.
+     */
+    private long store(String taskId, Task task, boolean journaled) {
+        TaskPartition target = task == null ? null : partition(task.getCompanyId());
+        long[] sequence = {0};
+        Task[] replaced = {null};
+        boolean[] retry = {false};
+        // Les partitions sont rechargées avant d'entrer dans compute() : aucune lecture de fichier sous le verrou
+        // de la clé. Une partition déchargée entre-temps fait sortir de la section critique sans rien écrire, et l'on recommence
+        do {
+            TaskPartition.prepareForWrite(partitionsByTaskId.get(taskId), target);
+            retry[0] = false;
+            partitionsByTaskId.compute(taskId, (id, current) -> {
+                if (current == null && task == null) {
+                    return null;
+                }
+                if (!TaskPartition.tryLockForWrite(current, target)) {
+                    retry[0] = true;
+                    return current;
+                }
+                try {
+                    Task previous = current == null ? null : materialize(current.get(id));
+                    // Une écriture sur une tâche archivée la remplace ou la supprime de l'archive
+                    Task archived = current != null && previous == null ? current.getArchived(id) : null;
+                    if (task == null && previous == null && archived == null) {
+                        return null;
+                    }
+                    if (journaled && task != null) {
+                        checkCapacity(target, current, previous);
+                    }
+                    // Le journal est ajouté avant toute écriture en mémoire : s'il refuse l'opération, rien n'a changé
+                    replaced[0] = previous != null ? previous : archived;
+                    if (journaled) {
+                        if (task != null) {
+                            task.setVersion(versions.incrementAndGet());
+                            task.setArchivedAt(null);
+                        }
+                        sequence[0] = journal.append(task != null ? JournalEntry.put(id, task) : JournalEntry.delete(id));
+                        notifyListeners(replaced[0], task);
+                    }
+                    if (archived != null) {
+                        current.removeArchived(id);
+                    }
+                    return move(id, current, previous, target, task);
+                } finally {
+                    TaskPartition.unlockForWrite(current, target);
+                }
+            });
+        } while (retry[0]);
+        bumpScopeVersions(replaced[0], task);
+        return sequence[0];
+    }
+
+    /**
+     * Méthode privée qui remplace la version active d'une tâche par la nouvelle, dans sa partition ou d'une partition
+     * à l'autre si la compagnie change, et met à jour les index communs ; sous le verrou de la clé et des partitions.
+     *
+     * @param current  Partition actuelle de la tâche (null si elle est nouvelle).
+     * @param previous Version active précédente (null si la tâche est nouvelle ou archivée).
+     * @param target   Partition de la nouvelle version.
+     * @param task     Nouvelle version, ou null pour une suppression.
+     * @return Partition de la tâche après l'écriture, ou null si elle est supprimée.
+     */
+    private TaskPartition move(String taskId, TaskPartition current, Task previous, TaskPartition target, Task task) {
+        if (previous != null) {
+            unindex(previous);
+            if (task == null || current != target) {
+                current.remove(previous);
+            }
+        }
+        if (task == null) {
+            taskIds.remove(taskId);
+            return null;
+        }
+        target.put(current == target ? previous : null, CompactTask.of(task, ids), task);
+        index(task);
+        taskIds.add(taskId);
+        return target;
+    }
+
+    // La limite est lue sans verrou sur la partition : des ajouts simultanés dans une même compagnie peuvent la dépasser de quelques tâches
+    private void checkCapacity(TaskPartition target, TaskPartition current, Task previous) {
+        if (maxTasksPerCompany > 0 && (target != current || previous == null) && target.size() >= maxTasksPerCompany) {
+            throw new TaskLimitExceededException(target.getCompanyId(), maxTasksPerCompany);
+        }
+    }
+
+    /**
+     * Méthode privée qui déplace une tâche échue vers l'archive de sa partition, sous le verrou de la clé.
+     * Les périmètres de la tâche changent de version : elle disparaît de leurs listes, et les abonnés au flux
+     * la voient supprimée.
+     */
+    private boolean archive(String taskId, Instant now) {
+        Task[] archived = {null};
+        boolean[] retry = {false};
+        do {
+            TaskPartition.prepareForWrite(partitionsByTaskId.get(taskId), null);
+            retry[0] = false;
+            partitionsByTaskId.computeIfPresent(taskId, (id, current) -> {
+                if (!TaskPartition.tryLockForWrite(current, null)) {
+                    retry[0] = true;
+                    return current;
+                }
+                try {
+                    CompactTask stored = current.get(id);
+                    if (stored == null || stored.getExpiresAt() == null || stored.getExpiresAt().isAfter(now)) {
+                        return current;
+                    }
+                    Task task = materialize(stored);
+                    Task archivedTask = materialize(stored);
+                    archivedTask.setArchivedAt(now);
+                    // L'archive reçoit la tâche avant que la version active ne soit retirée : une lecture par ID
+                    // sans verrou trouve toujours l'une des deux
+                    current.putArchived(archivedTask);
+                    unindex(task);
+                    current.remove(task);
+                    taskIds.remove(id);
+                    notifyListeners(task, null);
+                    archived[0] = task;
+                    return current;
+                } finally {
+                    TaskPartition.unlockForWrite(current, null);
+                }
+            });
+        } while (retry[0]);
+        if (archived[0] == null) {
+            return false;
+        }
+        bumpScopeVersions(archived[0], null);
+        return true;
+    }
+
+    /**
+     * Méthode privée qui avance les versions des périmètres touchés par une écriture.
+     * Appelée une fois l'écriture visible : un lecteur qui voit la nouvelle version voit aussi les nouvelles données,
+     * et ne peut donc pas associer des données périmées à un ETag à jour.
+     */
+    private void bumpScopeVersions(Task previous, Task current) {
+        if (previous == null && current == null) {
+            return;
+        }
+        long version = versions.incrementAndGet();
+        for (Task task : new Task[]{previous, current}) {
+            if (task != null) {
+                TaskPartition partition = task.getCompanyId() == null ? null : partitions.get(task.getCompanyId());
+                if (partition != null) {
+                    partition.bumpVersion(version);
+                }
+                bumpVersion(versionsByAssignedToUserId, task.getAssignedToUserId(), version);
+            }
+        }
+    }
+
+    private static void bumpVersion(Map<String, Long> scopeVersions, String key, long version) {
+        if (key != null) {
+            scopeVersions.merge(key, version, Math::max);
+        }
+    }
+
+    /**
+     * Méthode privée qui reconstruit les tâches d'un parcours. Le flux est ordonné : en parallèle, chaque segment
+     * est traité sur le pool de parcours et les résultats sont rassemblés dans l'ordre des IDs.
+     *
+     * @param compactTasks  Parcours ordonné de l'index.
+     * @param estimatedSize Taille du périmètre (sans tenir compte du curseur).
+     */
+    private List<Task> collect(Stream<CompactTask> compactTasks, long estimatedSize) {
+        long start = RequestTrace.start();
+        List<Task> result;
+        if (estimatedSize < parallelScanThreshold) {
+            result = compactTasks.map(this::materialize).collect(Collectors.toList());
+        } else {
+            result = scanPool.submit(() -> compactTasks.parallel().map(this::materialize).collect(Collectors.toList())).join();
+        }
+        RequestTrace.end(RequestTrace.SCAN, start);
+        return result;
+    }
+
+    @PreDestroy
+    public void close() {
+        scanPool.shutdown();
+        deleteSpillDirectory();
+    }
+
+    // Reconstruit le POJO exposé par l'API (null si la tâche n'existe pas)
+    private Task materialize(CompactTask task) {
+        return task == null ? null : task.toTask(ids);
+    }
+
+    private void notifyListeners(Task previous, Task current) {
+        for (TaskChangeListener listener : listeners) {
+            listener.onTaskChange(previous, current);
+        }
+    }
+
+    private void applyReplayed(JournalEntry<Task> entry) {
+        switch (entry.getOperation()) {
+            case PUT -> store(entry.getId(), entry.getValue(), false);
+            case DELETE -> store(entry.getId(), null, false);
+            case CLEAR -> clearInMemory();
+        }
+    }
+
+    private void clearInMemory() {
+        partitionsByTaskId.clear();
+        taskIds.clear();
+        searchIndex.clear();
+        counters.clear();
+        long version = versions.incrementAndGet();
+        for (TaskPartition partition : allPartitions()) {
+            partition.clear(version);
+        }
+        versionsByAssignedToUserId.replaceAll((key, previous) -> version);
+    }
+
+    // Ajoute la tâche aux index communs à toutes les compagnies ; ceux de sa partition sont tenus par TaskPartition
+    private void index(Task task) {
+        searchIndex.index(task);
+        counters.increment(task);
+    }
+
+    private void unindex(Task task) {
+        searchIndex.unindex(task);
+        counters.decrement(task);
+    }
+
+    // Partition d'une compagnie, créée à sa première tâche
+    private TaskPartition partition(String companyId) {
+        if (companyId == null) {
+            return unassignedPartition;
+        }
+        TaskPartition partition = partitions.get(companyId);
+        return partition != null ? partition
+                : partitions.computeIfAbsent(companyId, id -> new TaskPartition(id, partitionOrder.getAndIncrement(), ids));
+    }
+
+    private List<TaskPartition> allPartitions() {
+        List<TaskPartition> all = new ArrayList<>(partitions.size() + 1);
+        all.addAll(partitions.values());
+        all.add(unassignedPartition);
+        return all;
+    }
+
+    private TenantUsage usage(TaskPartition partition) {
+        return new TenantUsage(partition.getCompanyId(), partition.isLoaded(), partition.size(),
+                partition.getArchivedTaskCount(), partition.getSizeInBytes());
+    }
+
+    // Version active d'une tâche, ou null
+    private CompactTask lookup(String taskId) {
+        TaskPartition partition = partitionsByTaskId.get(taskId);
+        return partition == null ? null : partition.get(taskId);
+    }
+
+    // Tâche active ou archivée d'une partition ; seconde lecture des tâches actives si elle a quitté l'archive entre-temps
+    private Task find(TaskPartition partition, String taskId) {
+        if (partition == null) {
+            return null;
+        }
+        Task task = materialize(partition.get(taskId));
+        if (task == null) {
+            task = partition.getArchived(taskId);
+        }
+        return task != null ? task : materialize(partition.get(taskId));
+    }
+
+    // Les IDs sont faiblement cohérents : une tâche supprimée ou archivée pendant le parcours est ignorée
+    private Stream<CompactTask> streamAll(String afterTaskId) {
+        NavigableSet<String> range = afterTaskId == null ? taskIds : taskIds.tailSet(afterTaskId, false);
+        return range.stream()
+                .map(this::lookup)
+                .filter(Objects::nonNull);
+    }
+
+    // Seules les partitions où l'utilisateur a des tâches (d'après les compteurs) sont lues, puis fusionnées par ID.
+    // L'assigné est revérifié sur la tâche lue : une réassignation concurrente ne doit pas la faire apparaître à tort
+    private Stream<CompactTask> streamAssignee(String userId, String afterTaskId) {
+        int handle = ids.lookup(userId);
+        if (handle == IdDictionary.NONE) {
+            return Stream.empty();
+        }
+        List<Stream<CompactTask>> sorted = new ArrayList<>();
+        for (String companyId : counters.companiesOfAssignee(userId)) {
+            TaskPartition partition = partitions.get(companyId);
+            if (partition != null) {
+                sorted.add(partition.streamByAssignedToUserId(userId, afterTaskId));
+            }
+        }
+        sorted.add(unassignedPartition.streamByAssignedToUserId(userId, afterTaskId));
+        return merge(sorted).filter(task -> task.getAssignedToUserId() == handle);
+    }
+
+    // Fusionne des parcours triés par ID en un seul parcours trié
+    private static Stream<CompactTask> merge(List<Stream<CompactTask>> sorted) {
+        if (sorted.size() == 1) {
+            return sorted.get(0);
+        }
+        PriorityQueue<Map.Entry<CompactTask, Iterator<CompactTask>>> heads =
+                new PriorityQueue<>(sorted.size(), Comparator.comparing(head -> head.getKey().getId()));
+        for (Stream<CompactTask> stream : sorted) {
+            Iterator<CompactTask> iterator = stream.iterator();
+            if (iterator.hasNext()) {
+                heads.add(Map.entry(iterator.next(), iterator));
+            }
+        }
+        Iterator<CompactTask> merged = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public CompactTask next() {
+                Map.Entry<CompactTask, Iterator<CompactTask>> head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (head.getValue().hasNext()) {
+                    heads.add(Map.entry(head.getValue().next(), head.getValue()));
+                }
+                return head.getKey();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Sous-répertoire de débordement propre à cette instance : deux services ne partagent jamais un fichier
+    private Path spillDirectory() {
+        Path directory = spillDirectory;
+        if (directory != null) {
+            return directory;
+        }
+        spillDirectoryLock.lock();
+        try {
+            if (spillDirectory == null) {
+                Files.createDirectories(spillParentDirectory);
+                spillDirectory = Files.createTempDirectory(spillParentDirectory, "todolist-partitions-");
+            }
+            return spillDirectory;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill directory in " + spillParentDirectory, e);
+        } finally {
+            spillDirectoryLock.unlock();
+        }
+    }
+
+    private void deleteSpillDirectory() {
+        spillDirectoryLock.lock();
+        try {
+            if (spillDirectory == null) {
+                return;
+            }
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+                Files.deleteIfExists(spillDirectory);
+            } catch (IOException e) {
+                // Fichiers orphelins dans le répertoire temporaire : sans effet sur une prochaine instance
+            }
+        } finally {
+            spillDirectoryLock.unlock();
+        }
     }
 }
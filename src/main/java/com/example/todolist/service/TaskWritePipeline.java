@@ -0,0 +1,220 @@
+package com.example.todolist.service;
+
+import com.example.todolist.model.Task;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToLongFunction;
+
+/**
+ * Pipeline d'écriture asynchrone : les créations, mises à jour et suppressions sont déposées dans une file bornée
+ * sans verrou ({@link WriteRing}) et appliquées par un unique thread écrivain, par lots. Le lot entier partage
+ * une seule attente de durabilité du journal, et chaque appelant est acquitté par un {@link CompletableFuture}
+ * une fois son écriture visible et durable, sans occuper de thread de requête pendant l'attente.
+ * <p>
+ * Lecture de ses propres écritures : une lecture faite par un utilisateur via {@link #awaitWrites(String)}
+ * attend que ses écritures déjà acceptées soient appliquées.
+ * <p>
+ * Désactivé, le pipeline applique chaque écriture directement dans le thread appelant.
+ */
+@Component
+public class TaskWritePipeline {
+
+    private final TaskService taskService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration readYourWritesTimeout;
+    private final WriteRing<Write> ring;
+    private final Thread writer;
+
+    // Dernière écriture acceptée de chaque utilisateur, retirée une fois appliquée
+    private final Map<String, CompletableFuture<Boolean>> lastWriteByUserId = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+    private volatile boolean writerParked;
+
+    public TaskWritePipeline(TaskService taskService,
+                             @Value("${todolist.write-pipeline.enabled:false}") boolean enabled,
+                             @Value("${todolist.write-pipeline.capacity:4096}") int capacity,
+                             @Value("${todolist.write-pipeline.max-batch-size:256}") int maxBatchSize,
+                             @Value("${todolist.write-pipeline.read-your-writes-timeout:PT5S}") Duration readYourWritesTimeout) {
+        this.taskService = taskService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.readYourWritesTimeout = readYourWritesTimeout;
+        if (!enabled) {
+            this.ring = null;
+            this.writer = null;
+            return;
+        }
+        this.ring = new WriteRing<>(capacity);
+        this.writer = new Thread(this::run, "task-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Méthode pour créer ou remplacer une tâche.
+     *
+     * @param userId ID de l'utilisateur à l'origine de l'écriture.
+     * @param task   Tâche à écrire ; sa version est attribuée par l'écrivain.
+     * @return Acquittement (true), ou null si la file est pleine.
+     */
+    public CompletableFuture<Boolean> put(String userId, Task task) {
+        return submit(userId, service -> service.putDeferred(task));
+    }
+
+    // Supprime une tâche ; null si la file est pleine
+    public CompletableFuture<Boolean> delete(String userId, String taskId) {
+        return submit(userId, service -> service.deleteDeferred(taskId));
+    }
+
+    /**
+     * Méthode pour remplacer une tâche si elle n'a pas changé depuis sa lecture (voir {@link TaskService#replaceTask}).
+     *
+     * @return true si le remplacement a eu lieu, false si la tâche a changé ; null si la file est pleine.
+     */
+    public CompletableFuture<Boolean> replace(String userId, Task expectedTask, Task updatedTask) {
+        return submit(userId, service -> service.replaceDeferred(expectedTask, updatedTask));
+    }
+
+    /**
+     * Attend que les écritures déjà acceptées pour cet utilisateur soient appliquées, au plus le délai configuré.
+     * Les écritures d'un utilisateur sont appliquées dans l'ordre : attendre la dernière suffit.
+     *
+     * @param userId ID de l'utilisateur qui lit.
+     */
+    public void awaitWrites(String userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        CompletableFuture<Boolean> lastWrite = lastWriteByUserId.get(userId);
+        if (lastWrite == null) {
+            return;
+        }
+        try {
+            lastWrite.get(readYourWritesTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Écriture en échec (l'auteur en est informé) ou trop lente : la lecture se fait sur l'état courant
+        }
+    }
+
+    private CompletableFuture<Boolean> submit(String userId, ToLongFunction<TaskService> operation) {
+        if (!enabled) {
+            try {
+                long sequence = operation.applyAsLong(taskService);
+                taskService.awaitDurable(sequence);
+                return CompletableFuture.completedFuture(sequence >= 0);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        Write write = new Write(operation);
+        if (!running || !ring.offer(write)) {
+            return null;
+        }
+        // Arrêt commencé pendant le dépôt : l'écrivain a pu finir sans voir cette écriture, elle échoue si elle n'est pas déjà prise
+        if (!running && write.claim()) {
+            write.result.completeExceptionally(new IllegalStateException("Write pipeline is closed"));
+            return write.result;
+        }
+        if (userId != null) {
+            lastWriteByUserId.put(userId, write.result);
+            write.result.whenComplete((replaced, error) -> lastWriteByUserId.remove(userId, write.result));
+        }
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return write.result;
+    }
+
+    private void run() {
+        List<Write> batch = new ArrayList<>(maxBatchSize);
+        // À l'arrêt, l'écrivain lit encore toutes les cases déjà réservées, publiées ou sur le point de l'être
+        while (running || !ring.isDrained()) {
+            if (ring.drainTo(batch, maxBatchSize) == 0) {
+                // La file est revérifiée après avoir signalé l'attente : un producteur qui publie ensuite réveille l'écrivain
+                writerParked = true;
+                if (running && ring.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                writerParked = false;
+                continue;
+            }
+            applyBatch(batch);
+            batch.clear();
+        }
+    }
+
+    // Applique le lot, attend une seule fois la durabilité de sa dernière écriture, puis acquitte
+    private void applyBatch(List<Write> batch) {
+        long sequence = 0;
+        batch.removeIf(write -> !write.claim());
+        for (Write write : batch) {
+            try {
+                write.sequence = write.operation.applyAsLong(taskService);
+                sequence = Math.max(sequence, write.sequence);
+            } catch (RuntimeException e) {
+                write.result.completeExceptionally(e);
+            }
+        }
+        try {
+            taskService.awaitDurable(sequence);
+        } catch (RuntimeException e) {
+            batch.forEach(write -> write.result.completeExceptionally(e));
+            return;
+        }
+        for (Write write : batch) {
+            write.result.complete(write.sequence >= 0);
+        }
+    }
+
+    // Les écritures déjà acceptées sont appliquées avant l'arrêt
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+
+    private static final class Write {
+
+        final ToLongFunction<TaskService> operation;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        // Numéro de séquence du journal, ou -1 si un remplacement n'a pas eu lieu ; lu et écrit par l'écrivain seul
+        long sequence;
+
+        // Pris une seule fois : par l'écrivain pour l'appliquer, ou par le producteur pour l'échouer à l'arrêt
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        Write(ToLongFunction<TaskService> operation) {
+            this.operation = operation;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
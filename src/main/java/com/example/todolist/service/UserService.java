@@ -2,19 +2,53 @@ package com.example.todolist.service;
 
 import com.example.todolist.model.Role;
 import com.example.todolist.model.User;
+import com.example.todolist.persistence.Journal;
+import com.example.todolist.persistence.JournalEntry;
+import com.example.todolist.tracing.RequestTrace;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class UserService {
 
-    private Map<String, User> users = new HashMap<>();
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+
+    // Journal des écritures (sans effet si la persistance est désactivée)
+    private final Journal<User> journal;
+
+    // Cache borné (taille et durée de vie) des utilisateurs résolus, y compris les IDs inconnus
+    private final Cache<String, Optional<User>> userCache;
 
     public UserService() {
+        this(Journal.noop(), 10_000, Duration.ofMinutes(5));
+    }
+
+    @Autowired
+    public UserService(Journal<User> journal,
+                       @Value("${todolist.user-cache.maximum-size:10000}") long cacheMaximumSize,
+                       @Value("${todolist.user-cache.ttl:PT5M}") Duration cacheTtl) {
+        this.journal = journal;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+
+        // Rejeu des écritures persistées ; les utilisateurs initiaux ne sont créés que si le journal est vide
+        if (journal.replay(this::applyReplayed) > 0) {
+            return;
+        }
+
         // Initialisation des utilisateurs
         addUser(new User("user1", "Alice", Role.STANDARD, "company1"));
         addUser(new User("user2", "Bob", Role.COMPANY_ADMIN, "company1"));
@@ -23,21 +57,52 @@ public class UserService {
 
     // Méthode pour vider la map des utilisateurs
     public void clearUsers() {
+        long sequence = journal.append(JournalEntry.clear());
         users.clear();
+        userCache.invalidateAll();
+        journal.awaitDurable(sequence);
     }
 
     // Méthode pour ajouter un utilisateur
     public void addUser(User user) {
-        users.put(user.getId(), user);
+        long[] sequence = {0};
+        users.compute(user.getId(), (userId, previous) -> {
+            sequence[0] = journal.append(JournalEntry.put(userId, user));
+            return user;
+        });
+        // Après l'écriture : une lecture du cache en cours pour cette clé est attendue puis invalidée
+        userCache.invalidate(user.getId());
+        journal.awaitDurable(sequence[0]);
     }
 
-    // Méthode pour obtenir un utilisateur par ID
+    // Méthode pour obtenir un utilisateur par ID, via le cache
     public Optional<User> getUserById(String userId) {
-        return Optional.ofNullable(users.get(userId));
+        long start = RequestTrace.start();
+        Optional<User> user = userCache.get(userId, id -> Optional.ofNullable(users.get(id)));
+        RequestTrace.end(RequestTrace.USER, start);
+        return user;
+    }
+
+    // Nombre d'utilisateurs enregistrés
+    public int getUserCount() {
+        return users.size();
+    }
+
+    // Statistiques du cache des utilisateurs (succès, échecs, évictions)
+    public CacheStats getCacheStats() {
+        return userCache.stats();
     }
 
     // Méthode pour obtenir tous les utilisateurs
     public Collection<User> getAllUsers() {
         return users.values();
     }
+
+    private void applyReplayed(JournalEntry<User> entry) {
+        switch (entry.getOperation()) {
+            case PUT -> users.put(entry.getId(), entry.getValue());
+            case DELETE -> users.remove(entry.getId());
+            case CLEAR -> users.clear();
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.example.todolist.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * File bornée sans verrou, à plusieurs producteurs et un seul consommateur, sur un tableau circulaire.
+ * Un producteur réserve une case par CAS sur la queue puis y publie son élément ; le consommateur lit
+ * les cases dans l'ordre et les libère. Une case réservée mais pas encore publiée arrête la lecture.
+ *
+ * @param <E> Type des éléments.
+ */
+class WriteRing<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+
+    // Prochaine case à réserver (producteurs) et prochaine case à lire (consommateur)
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    WriteRing(int capacity) {
+        // Capacité arrondie à une puissance de deux : l'indice d'une case est un masque de la séquence
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Ajoute un élément sans bloquer.
+     *
+     * @return false si la file est pleine.
+     */
+    boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.set((int) sequence & mask, element);
+        return true;
+    }
+
+    /**
+     * Retire jusqu'à {@code maxElements} éléments, dans l'ordre de réservation. Réservé au consommateur.
+     *
+     * @return Nombre d'éléments retirés.
+     */
+    int drainTo(List<E> target, int maxElements) {
+        long sequence = head;
+        int count = 0;
+        while (count < maxElements) {
+            int index = (int) sequence & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            target.add(element);
+            sequence++;
+            count++;
+        }
+        head = sequence;
+        return count;
+    }
+
+    // Vrai si toutes les cases réservées ont été lues ; une case réservée mais pas encore publiée compte
+    boolean isDrained() {
+        return tail.get() == head;
+    }
+
+    boolean isEmpty() {
+        return slots.get((int) head & mask) == null;
+    }
+}
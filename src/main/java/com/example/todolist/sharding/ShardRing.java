@@ -0,0 +1,60 @@
+package com.example.todolist.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Anneau de hachage cohérent : chaque nœud y occupe plusieurs positions (nœuds virtuels), et une clé appartient
+ * au premier nœud rencontré après son hachage. L'ajout ou le retrait d'un nœud ne déplace que les clés de ses positions.
+ * Immuable, donc lu sans verrou.
+ */
+public final class ShardRing {
+
+    private final NavigableMap<Long, String> positions = new TreeMap<>();
+    private final List<String> nodes;
+
+    public ShardRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A shard ring needs at least one node and one virtual node per node");
+        }
+        this.nodes = List.copyOf(nodes);
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                positions.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * Nœud propriétaire d'une clé.
+     *
+     * @param key Clé de partitionnement (ID de compagnie) ; null est traité comme la chaîne vide.
+     * @return URL de base du nœud.
+     */
+    public String ownerOf(String key) {
+        Map.Entry<Long, String> entry = positions.ceilingEntry(hash(key == null ? "" : key));
+        return entry != null ? entry.getValue() : positions.firstEntry().getValue();
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    // FNV-1a 64 bits suivi du mélange final de MurmurHash3, pour bien répartir des clés proches (company1, company2...)
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.todolist.sharding;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.service.TaskService;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Mode partitionné : les tâches sont réparties entre plusieurs instances selon leur companyId, par hachage cohérent
+ * ({@link ShardRing}). Chaque nœud ne stocke que les compagnies qu'il possède et transmet les autres requêtes
+ * au nœud propriétaire (voir {@link ShardRoutingFilter}).
+ * <p>
+ * Les utilisateurs ne sont pas partitionnés : chaque nœud doit connaître les mêmes utilisateurs.
+ */
+@Component
+public class ShardRouter {
+
+    // Marque une requête déjà routée : le nœud qui la reçoit la traite localement, sans la retransmettre
+    static final String FORWARDED_HEADER = "X-Todolist-Forwarded";
+
+    // En-têtes de la requête transmis au nœud propriétaire, et de sa réponse renvoyés au client
+    private static final List<String> REQUEST_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MATCH, "Prefer");
+    static final List<String> RESPONSE_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.VARY, HttpHeaders.RETRY_AFTER, "X-Next-Cursor");
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+    private final boolean enabled;
+    private final String self;
+    private final ShardRing ring;
+    private final RestClient restClient;
+    private final ExecutorService scatterExecutor;
+    private final TaskService taskService;
+    private final boolean persistent;
+
+    public ShardRouter(TaskService taskService,
+                       @Value("${todolist.sharding.enabled:false}") boolean enabled,
+                       @Value("${todolist.sharding.self:}") String self,
+                       @Value("${todolist.sharding.nodes:}") List<String> nodes,
+                       @Value("${todolist.sharding.virtual-nodes:128}") int virtualNodes,
+                       @Value("${todolist.sharding.timeout:PT2S}") Duration timeout,
+                       @Value("${todolist.persistence.enabled:false}") boolean persistent) {
+        this.taskService = taskService;
+        this.enabled = enabled;
+        this.self = self;
+        this.persistent = persistent;
+        if (!enabled) {
+            this.ring = null;
+            this.restClient = null;
+            this.scatterExecutor = null;
+            return;
+        }
+        if (!nodes.contains(self)) {
+            throw new IllegalStateException("todolist.sharding.self (" + self + ") must be one of todolist.sharding.nodes " + nodes);
+        }
+        this.ring = new ShardRing(nodes, virtualNodes);
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        this.scatterExecutor = Executors.newFixedThreadPool(Math.max(2, nodes.size() * 4), runnable -> {
+            Thread thread = new Thread(runnable, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Nœud propriétaire des tâches d'une compagnie
+    public String ownerOf(String companyId) {
+        return ring.ownerOf(companyId);
+    }
+
+    public boolean isLocal(String companyId) {
+        return self.equals(ownerOf(companyId));
+    }
+
+    // Autres nœuds de l'anneau
+    public List<String> getPeers() {
+        return ring.getNodes().stream()
+                .filter(node -> !node.equals(self))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Méthode pour rejouer la requête du client sur un autre nœud.
+     *
+     * @param node    URL de base du nœud.
+     * @param request Requête reçue.
+     * @param body    Corps de la requête (vide si aucun).
+     * @param accept  En-tête Accept à envoyer à la place de celui du client, ou null.
+     * @return Réponse du nœud, quel que soit son statut.
+     */
+    public ResponseEntity<byte[]> forward(String node, HttpServletRequest request, byte[] body, String accept) {
+        String query = request.getQueryString();
+        URI uri = URI.create(node + request.getRequestURI() + (query != null ? "?" + query : ""));
+        RestClient.RequestBodySpec spec = restClient.method(HttpMethod.valueOf(request.getMethod()))
+                .uri(uri)
+                .headers(headers -> {
+                    for (String name : REQUEST_HEADERS) {
+                        String value = name.equals(HttpHeaders.ACCEPT) && accept != null ? accept : request.getHeader(name);
+                        if (value != null) {
+                            headers.set(name, value);
+                        }
+                    }
+                    headers.set(FORWARDED_HEADER, self);
+                });
+        if (body != null && body.length > 0) {
+            spec.body(body);
+        }
+        return spec.exchange((clientRequest, clientResponse) -> ResponseEntity.status(clientResponse.getStatusCode())
+                .headers(clientResponse.getHeaders())
+                .body(clientResponse.getBody().readAllBytes()), true);
+    }
+
+    // Rejoue la requête sur tous les autres nœuds en parallèle (scatter) ; un nœud injoignable donne un 502
+    public List<ResponseEntity<byte[]>> forwardToPeers(HttpServletRequest request, byte[] body, String accept) {
+        List<CompletableFuture<ResponseEntity<byte[]>>> responses = new ArrayList<>();
+        for (String peer : getPeers()) {
+            responses.add(CompletableFuture.supplyAsync(() -> forward(peer, request, body, accept), scatterExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Shard {} did not answer: {}", peer, e.toString());
+                        return unreachable();
+                    }));
+        }
+        return responses.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    static ResponseEntity<byte[]> unreachable() {
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body("A shard did not answer.".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Au démarrage, chaque nœud a créé les mêmes tâches initiales : un nœud sans persistance ne garde que celles
+     * de ses compagnies. Avec la persistance, les tâches d'autres compagnies (ex. après un changement de topologie)
+     * sont conservées et signalées, pour ne jamais perdre de données en silence.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropForeignTasks() {
+        if (!enabled) {
+            return;
+        }
+        List<String> foreignTaskIds = taskService.getAllTasks().stream()
+                .filter(task -> !isLocal(task.getCompanyId()))
+                .map(Task::getId)
+                .collect(Collectors.toList());
+        if (foreignTaskIds.isEmpty()) {
+            return;
+        }
+        if (persistent) {
+            log.warn("{} stored tasks belong to companies owned by other shards and must be migrated", foreignTaskIds.size());
+        } else {
+            taskService.deleteTasks(foreignTaskIds);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+}
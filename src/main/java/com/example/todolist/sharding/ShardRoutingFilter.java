@@ -0,0 +1,341 @@
+package com.example.todolist.sharding;
+
+import com.example.todolist.codec.TaskCodec;
+import com.example.todolist.codec.WireFormat;
+import com.example.todolist.model.Task;
+import com.example.todolist.model.TaskStats;
+import com.example.todolist.model.User;
+import com.example.todolist.security.TaskAccessPolicy;
+import com.example.todolist.security.TaskPermissionEvaluator;
+import com.example.todolist.service.TaskService;
+import com.example.todolist.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Route les requêtes {@code /tasks} vers le nœud propriétaire des tâches concernées :
+ * <ul>
+ *     <li>création : nœud propriétaire de la compagnie de la tâche ;</li>
+ *     <li>liste et recherche d'un Company Admin : nœud propriétaire de sa compagnie ;</li>
+ *     <li>liste d'un Super User ou d'un Standard User : tous les nœuds (scatter-gather), fusionnés par ID ;</li>
+ *     <li>statistiques : nœud de la compagnie d'un Company Admin, sinon somme des compteurs de tous les nœuds ;</li>
+ *     <li>lecture, mise à jour et suppression par ID : nœud local si la tâche y est, sinon les autres nœuds.</li>
+ * </ul>
+ * Les opérations par lot, la recherche hors compagnie et le flux SSE restent locales au nœud interrogé,
+ * de même que l'import et l'export en flux : les créations et mises à jour par lot, comme l'import, refusent
+ * une à une (409) les tâches des compagnies d'autres nœuds, et les suppressions par lot ne voient que les tâches locales.
+ */
+@Component
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final ShardRouter shardRouter;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final TaskService taskService;
+    private final UserService userService;
+    private final TaskPermissionEvaluator permissionEvaluator;
+    private final TaskCodec taskCodec;
+
+    public ShardRoutingFilter(ShardRouter shardRouter,
+                              @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                              TaskService taskService,
+                              UserService userService,
+                              TaskPermissionEvaluator permissionEvaluator,
+                              TaskCodec taskCodec) {
+        this.shardRouter = shardRouter;
+        this.handlerMapping = handlerMapping;
+        this.taskService = taskService;
+        this.userService = userService;
+        this.permissionEvaluator = permissionEvaluator;
+        this.taskCodec = taskCodec;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !shardRouter.isEnabled()
+                || request.getHeader(ShardRouter.FORWARDED_HEADER) != null
+                || !request.getRequestURI().startsWith("/tasks");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String handler = handlerName(request);
+        if ("importTasks".equals(handler) || "exportTasks".equals(handler)) {
+            // Corps potentiellement volumineux : lus et écrits en flux par le nœud local, jamais mis en mémoire
+            chain.doFilter(request, response);
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        Optional<User> optionalUser = Optional.ofNullable(request.getParameter("userId")).flatMap(userService::getUserById);
+        if (handler == null || !optionalUser.isPresent()) {
+            // Requête invalide ou utilisateur inconnu : la réponse d'erreur du nœud local suffit
+            chain.doFilter(cachedRequest, response);
+            return;
+        }
+        TaskAccessPolicy policy = permissionEvaluator.policyFor(optionalUser.get());
+
+        switch (handler) {
+            case "createTask":
+            case "createTaskAsync":
+                routeCreate(cachedRequest, response, chain);
+                break;
+            case "getAllTasks":
+            case "streamAllTasks":
+                routeListing(cachedRequest, response, chain, policy, handler.equals("streamAllTasks"));
+                break;
+            case "searchTasks":
+                routeToCompany(cachedRequest, response, chain, policy);
+                break;
+            case "getTaskStats":
+                routeStats(cachedRequest, response, chain, policy);
+                break;
+            case "getTaskById":
+            case "updateTask":
+            case "updateTaskAsync":
+            case "deleteTask":
+            case "deleteTaskAsync":
+                routeById(cachedRequest, response, chain, handler);
+                break;
+            default:
+                chain.doFilter(cachedRequest, response);
+        }
+    }
+
+    // Nom de la méthode du contrôleur qui traiterait la requête ; renseigne aussi les variables de chemin
+    private String handlerName(HttpServletRequest request) {
+        try {
+            HandlerExecutionChain executionChain = handlerMapping.getHandler(request);
+            if (executionChain != null && executionChain.getHandler() instanceof HandlerMethod handlerMethod) {
+                return handlerMethod.getMethod().getName();
+            }
+        } catch (Exception e) {
+            // Pas de contrôleur (405, 406...) : traitement local
+        }
+        return null;
+    }
+
+    private void routeCreate(CachedBodyRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Task task;
+        try {
+            task = taskCodec.mapperFor(WireFormat.negotiate(request.getContentType())).readValue(request.getBody(), Task.class);
+        } catch (IOException e) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (shardRouter.isLocal(task.getCompanyId())) {
+            chain.doFilter(request, response);
+        } else {
+            writeResponse(response, forward(shardRouter.ownerOf(task.getCompanyId()), request));
+        }
+    }
+
+    private void routeToCompany(CachedBodyRequest request, HttpServletResponse response, FilterChain chain,
+                                TaskAccessPolicy policy) throws ServletException, IOException {
+        if (policy.getScope() != TaskAccessPolicy.Scope.COMPANY || shardRouter.isLocal(policy.getCompanyId())) {
+            chain.doFilter(request, response);
+        } else {
+            writeResponse(response, forward(shardRouter.ownerOf(policy.getCompanyId()), request));
+        }
+    }
+
+    private void routeListing(CachedBodyRequest request, HttpServletResponse response, FilterChain chain,
+                              TaskAccessPolicy policy, boolean ndjson) throws ServletException, IOException {
+        TaskAccessPolicy.Scope scope = policy.getScope();
+        if (scope == TaskAccessPolicy.Scope.COMPANY || scope == TaskAccessPolicy.Scope.NONE) {
+            routeToCompany(request, response, chain, policy);
+            return;
+        }
+
+        Integer limit = parseLimit(request.getParameter("limit"));
+        if (limit != null && limit <= 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String cursor = request.getParameter("cursor");
+
+        // Chaque nœud renvoie au plus limit tâches triées par ID : les limit premières de la fusion sont les bonnes
+        Map<String, Task> merged = new TreeMap<>();
+        boolean hasMore = false;
+        ObjectMapper jsonMapper = taskCodec.mapperFor(WireFormat.JSON);
+        for (ResponseEntity<byte[]> peerResponse : shardRouter.forwardToPeers(request, null, MediaType.APPLICATION_JSON_VALUE)) {
+            if (!peerResponse.getStatusCode().is2xxSuccessful()) {
+                // Un nœud en erreur (injoignable, limité...) : pas de liste partielle
+                writeResponse(response, peerResponse);
+                return;
+            }
+            for (Task task : jsonMapper.readValue(peerResponse.getBody(), new TypeReference<List<Task>>() { })) {
+                merged.put(task.getId(), task);
+            }
+            hasMore |= peerResponse.getHeaders().containsKey(NEXT_CURSOR_HEADER);
+        }
+        policy.streamVisibleTasks(taskService, cursor)
+                .limit(limit != null ? limit + 1L : Long.MAX_VALUE)
+                .forEach(task -> merged.put(task.getId(), task));
+
+        List<Task> tasks = new ArrayList<>(merged.values());
+        if (limit != null && (hasMore || tasks.size() > limit)) {
+            tasks = tasks.subList(0, Math.min(limit, tasks.size()));
+            if (!tasks.isEmpty()) {
+                response.setHeader(NEXT_CURSOR_HEADER, tasks.get(tasks.size() - 1).getId());
+            }
+        }
+
+        // Pas d'ETag : la version de chaque nœud est locale
+        if (ndjson) {
+            // Écrite au fil de l'eau dans la réponse, sans copie intermédiaire du corps
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(NDJSON_MEDIA_TYPE);
+            JsonGenerator generator = jsonMapper.getFactory().createGenerator(response.getOutputStream());
+            generator.setRootValueSeparator(null);
+            for (Task task : tasks) {
+                jsonMapper.writeValue(generator, task);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        } else {
+            WireFormat format = WireFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            writeBody(response, HttpStatus.OK, format.getMediaType().toString(), taskCodec.write(tasks, format));
+        }
+    }
+
+    private void routeStats(CachedBodyRequest request, HttpServletResponse response, FilterChain chain,
+                            TaskAccessPolicy policy) throws ServletException, IOException {
+        if (policy.getScope() == TaskAccessPolicy.Scope.COMPANY || policy.getScope() == TaskAccessPolicy.Scope.NONE) {
+            routeToCompany(request, response, chain, policy);
+            return;
+        }
+
+        // Les compagnies sont disjointes entre nœuds : les compteurs s'additionnent
+        TaskStats local = policy.visibleStats(taskService);
+        long total = local.getTotal();
+        Map<String, Long> byCompanyId = new TreeMap<>(local.getByCompanyId());
+        Map<String, Long> byAssignedToUserId = new TreeMap<>(local.getByAssignedToUserId());
+        ObjectMapper jsonMapper = taskCodec.mapperFor(WireFormat.JSON);
+        for (ResponseEntity<byte[]> peerResponse : shardRouter.forwardToPeers(request, null, MediaType.APPLICATION_JSON_VALUE)) {
+            if (!peerResponse.getStatusCode().is2xxSuccessful()) {
+                writeResponse(response, peerResponse);
+                return;
+            }
+            TaskStats peer = jsonMapper.readValue(peerResponse.getBody(), TaskStats.class);
+            total += peer.getTotal();
+            peer.getByCompanyId().forEach((key, count) -> byCompanyId.merge(key, count, Long::sum));
+            peer.getByAssignedToUserId().forEach((key, count) -> byAssignedToUserId.merge(key, count, Long::sum));
+        }
+        byte[] body = jsonMapper.writeValueAsBytes(new TaskStats(total, byCompanyId, byAssignedToUserId));
+        writeBody(response, HttpStatus.OK, MediaType.APPLICATION_JSON_VALUE, body);
+    }
+
+    private void routeById(CachedBodyRequest request, HttpServletResponse response, FilterChain chain, String handler)
+            throws ServletException, IOException {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String taskId = variables.getOrDefault("id", variables.get("taskId"));
+
+        if (taskService.getTaskById(taskId).isPresent()) {
+            if (handler.startsWith("updateTask") && movesToOtherShard(request)) {
+                writeError(response, HttpStatus.CONFLICT, "Task cannot be moved to a company owned by another shard.");
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
+        // Tâche absente localement : le premier nœud qui la connaît répond
+        boolean unreachable = false;
+        for (ResponseEntity<byte[]> peerResponse : shardRouter.forwardToPeers(request, request.getBody(), null)) {
+            if (peerResponse.getStatusCode() == HttpStatus.BAD_GATEWAY) {
+                unreachable = true;
+            } else if (peerResponse.getStatusCode() != HttpStatus.NOT_FOUND) {
+                writeResponse(response, peerResponse);
+                return;
+            }
+        }
+        if (unreachable) {
+            writeResponse(response, ShardRouter.unreachable());
+        } else {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private boolean movesToOtherShard(CachedBodyRequest request) {
+        try {
+            Task task = taskCodec.mapperFor(WireFormat.negotiate(request.getContentType())).readValue(request.getBody(), Task.class);
+            return !shardRouter.isLocal(task.getCompanyId());
+        } catch (IOException e) {
+            // Corps invalide : le contrôleur répond 400
+            return false;
+        }
+    }
+
+    private ResponseEntity<byte[]> forward(String node, CachedBodyRequest request) {
+        try {
+            return shardRouter.forward(node, request, request.getBody(), null);
+        } catch (RestClientException e) {
+            logger.warn("Shard " + node + " did not answer: " + e);
+            return ShardRouter.unreachable();
+        }
+    }
+
+    private static Integer parseLimit(String limit) {
+        try {
+            return limit != null ? Integer.valueOf(limit) : null;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void writeResponse(HttpServletResponse response, ResponseEntity<byte[]> proxied) throws IOException {
+        for (String name : ShardRouter.RESPONSE_HEADERS) {
+            String value = proxied.getHeaders().getFirst(name);
+            if (value != null) {
+                response.setHeader(name, value);
+            }
+        }
+        response.setStatus(proxied.getStatusCode().value());
+        if (proxied.getBody() != null) {
+            response.getOutputStream().write(proxied.getBody());
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        writeBody(response, status, MediaType.TEXT_PLAIN_VALUE, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBody(HttpServletResponse response, HttpStatus status, String contentType, byte[] body)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(contentType);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
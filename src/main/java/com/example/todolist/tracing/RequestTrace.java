@@ -0,0 +1,189 @@
+package com.example.todolist.tracing;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Chronologie d'une requête : durée de chaque phase (résolution de l'utilisateur, politique d'accès, parcours,
+ * sérialisation...), rôle de l'appelant et taille du résultat.
+ * <p>
+ * La trace de la requête en cours est attachée au thread qui la traite. Les méthodes statiques
+ * {@link #start()} et {@link #end(String, long)} encadrent une phase depuis n'importe quelle couche, sans dépendance
+ * vers Spring ; tant qu'aucun {@link RequestTracer} actif n'existe, elles se réduisent à la lecture d'un booléen.
+ */
+public final class RequestTrace {
+
+    // Phases instrumentées
+    public static final String USER = "user";
+    public static final String POLICY = "policy";
+    public static final String LOOKUP = "lookup";
+    public static final String SCAN = "scan";
+    public static final String SEARCH = "search";
+    public static final String SERIALIZE = "serialize";
+    public static final String STREAM = "stream";
+    public static final String JOURNAL = "journal";
+
+    private static final int MAX_PHASES = 16;
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    // Passe à true dès qu'un traceur actif est créé ; jamais remis à false
+    private static volatile boolean enabled;
+
+    private final String endpoint;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+
+    // Phases dans l'ordre de première apparition ; une phase répétée cumule ses durées
+    private final String[] phaseNames = new String[MAX_PHASES];
+    private final long[] phaseNanos = new long[MAX_PHASES];
+    private int phaseCount;
+
+    private String role;
+    private int resultSize = -1;
+    private int status;
+    private long durationNanos;
+
+    RequestTrace(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Début d'une phase.
+     *
+     * @return Horodatage en nanosecondes, ou 0 si la requête n'est pas tracée.
+     */
+    public static long start() {
+        return enabled && CURRENT.get() != null ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Fin d'une phase commencée par {@link #start()}.
+     *
+     * @param phase Nom de la phase.
+     * @param start Valeur renvoyée par {@link #start()}.
+     */
+    public static void end(String phase, long start) {
+        if (start != 0L) {
+            RequestTrace trace = CURRENT.get();
+            if (trace != null) {
+                trace.addPhase(phase, System.nanoTime() - start);
+            }
+        }
+    }
+
+    // Trace de la requête traitée par le thread courant, ou null
+    public static RequestTrace current() {
+        return enabled ? CURRENT.get() : null;
+    }
+
+    // Rôle de l'appelant, renseigné à la résolution de sa politique d'accès
+    public static void recordRole(String role) {
+        RequestTrace trace = current();
+        if (trace != null) {
+            trace.role = role;
+        }
+    }
+
+    // Nombre de tâches renvoyées
+    public static void recordResultSize(int resultSize) {
+        RequestTrace trace = current();
+        if (trace != null) {
+            trace.setResultSize(resultSize);
+        }
+    }
+
+    static void enable() {
+        enabled = true;
+    }
+
+    static void bind(RequestTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Ajoute une durée à une phase. Sert aussi aux corps de réponse écrits en flux sur un autre thread,
+     * qui récupèrent la trace par {@link #current()} avant de rendre la main.
+     */
+    public void addPhase(String phase, long nanos) {
+        for (int i = 0; i < phaseCount; i++) {
+            if (phaseNames[i].equals(phase)) {
+                phaseNanos[i] += nanos;
+                return;
+            }
+        }
+        if (phaseCount < MAX_PHASES) {
+            phaseNames[phaseCount] = phase;
+            phaseNanos[phaseCount++] = nanos;
+        }
+    }
+
+    public void setResultSize(int resultSize) {
+        this.resultSize = resultSize;
+    }
+
+    void finish(int status) {
+        this.status = status;
+        this.durationNanos = System.nanoTime() - startNanos;
+    }
+
+    // Getters (exposés par l'endpoint d'administration)
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public int getResultSize() {
+        return resultSize;
+    }
+
+    public double getDurationMillis() {
+        return durationNanos / 1e6;
+    }
+
+    // Durée de chaque phase en millisecondes ; le reste de la durée totale est hors des phases instrumentées
+    public Map<String, Double> getPhases() {
+        Map<String, Double> phases = new LinkedHashMap<>();
+        for (int i = 0; i < phaseCount; i++) {
+            phases.put(phaseNames[i], phaseNanos[i] / 1e6);
+        }
+        return phases;
+    }
+
+    long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append(endpoint).append(' ').append(String.format("%.1f ms", getDurationMillis()))
+                .append(" (role=").append(role)
+                .append(", status=").append(status)
+                .append(", results=").append(resultSize < 0 ? "?" : String.valueOf(resultSize))
+                .append(')');
+        String separator = ": ";
+        for (int i = 0; i < phaseCount; i++) {
+            builder.append(separator).append(phaseNames[i]).append('=').append(String.format("%.2f ms", phaseNanos[i] / 1e6));
+            separator = ", ";
+        }
+        return builder.toString();
+    }
+}
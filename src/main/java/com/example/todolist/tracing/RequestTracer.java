@@ -0,0 +1,87 @@
+package com.example.todolist.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Enregistreur des traces de requêtes : les dernières traces sont gardées dans un tampon circulaire
+ * (écrasement sans verrou), et les requêtes plus lentes que le seuil sont journalisées avec le détail de leurs phases.
+ */
+@Component
+public class RequestTracer {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestTracer.class);
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final AtomicReferenceArray<RequestTrace> recentTraces;
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    public RequestTracer(@Value("${todolist.tracing.enabled:false}") boolean enabled,
+                         @Value("${todolist.tracing.slow-threshold:PT0.5S}") Duration slowThreshold,
+                         @Value("${todolist.tracing.buffer-size:1024}") int bufferSize) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.recentTraces = new AtomicReferenceArray<>(Math.max(1, bufferSize));
+        if (enabled) {
+            RequestTrace.enable();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Démarre la trace d'une requête et l'attache au thread courant
+    RequestTrace begin(String endpoint) {
+        RequestTrace trace = new RequestTrace(endpoint);
+        RequestTrace.bind(trace);
+        return trace;
+    }
+
+    /**
+     * Termine la trace : elle rejoint le tampon circulaire, et le journal si la requête est lente.
+     * Une réponse en flux (SSE, NDJSON) dure aussi longtemps que le client reste connecté ou lit le corps :
+     * sa trace n'est journalisée qu'au niveau DEBUG et reste hors du tampon des requêtes lentes.
+     *
+     * @param streaming true si le contrôleur a renvoyé une réponse en flux.
+     */
+    void finish(RequestTrace trace, int status, boolean streaming) {
+        trace.finish(status);
+        if (streaming) {
+            log.debug("Streamed request {}", trace);
+            return;
+        }
+        recentTraces.set((int) (nextSlot.getAndIncrement() % recentTraces.length()), trace);
+        if (trace.getDurationNanos() >= slowThresholdNanos) {
+            log.warn("Slow request {}", trace);
+        }
+    }
+
+    /**
+     * Méthode pour obtenir les requêtes les plus lentes parmi les dernières traces enregistrées.
+     *
+     * @param limit Nombre maximal de traces.
+     * @return Traces, de la plus lente à la plus rapide.
+     */
+    public List<RequestTrace> getSlowestRequests(int limit) {
+        List<RequestTrace> traces = new ArrayList<>(recentTraces.length());
+        for (int i = 0; i < recentTraces.length(); i++) {
+            RequestTrace trace = recentTraces.get(i);
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        traces.sort(Comparator.comparingLong(RequestTrace::getDurationNanos).reversed());
+        return traces.subList(0, Math.min(limit, traces.size()));
+    }
+}
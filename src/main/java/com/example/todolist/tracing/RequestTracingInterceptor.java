@@ -0,0 +1,66 @@
+package com.example.todolist.tracing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Trace chaque requête traitée par un contrôleur quand le traçage est activé.
+ * Une requête asynchrone (corps écrit en flux, écriture différée) garde la même trace : elle est détachée du thread
+ * initial au démarrage du traitement asynchrone, puis rattachée au thread du second passage, qui la termine.
+ * Les réponses en flux ne comptent pas parmi les requêtes lentes (voir {@link RequestTracer#finish}).
+ */
+@Component
+public class RequestTracingInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String TRACE_ATTRIBUTE = RequestTracingInterceptor.class.getName() + ".trace";
+
+    private final RequestTracer requestTracer;
+
+    public RequestTracingInterceptor(RequestTracer requestTracer) {
+        this.requestTracer = requestTracer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!requestTracer.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        if (request.getAttribute(TRACE_ATTRIBUTE) instanceof RequestTrace trace) {
+            RequestTrace.bind(trace);
+        } else {
+            request.setAttribute(TRACE_ATTRIBUTE, requestTracer.begin(handlerMethod.getMethod().getName()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTrace.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(TRACE_ATTRIBUTE) instanceof RequestTrace trace) {
+            RequestTrace.unbind();
+            requestTracer.finish(trace, response.getStatus(), handler instanceof HandlerMethod handlerMethod && isStreaming(handlerMethod));
+        }
+    }
+
+    // Réponse en flux : émetteur SSE ou corps écrit en flux, éventuellement dans un ResponseEntity
+    private static boolean isStreaming(HandlerMethod handlerMethod) {
+        MethodParameter returnType = handlerMethod.getReturnType();
+        Class<?> bodyType = returnType.getParameterType();
+        if (HttpEntity.class.isAssignableFrom(bodyType)) {
+            bodyType = ResolvableType.forMethodParameter(returnType).getGeneric(0).resolve(Object.class);
+        }
+        return ResponseBodyEmitter.class.isAssignableFrom(bodyType) || StreamingResponseBody.class.isAssignableFrom(bodyType);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todolist.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Endpoint d'administration {@code /actuator/slowrequests} : requêtes récentes les plus lentes,
+ * avec la durée de chaque phase. Vide tant que le traçage est désactivé.
+ */
+@Component
+@Endpoint(id = "slowrequests")
+public class SlowRequestsEndpoint {
+
+    static final int DEFAULT_LIMIT = 20;
+
+    private final RequestTracer requestTracer;
+
+    public SlowRequestsEndpoint(RequestTracer requestTracer) {
+        this.requestTracer = requestTracer;
+    }
+
+    @ReadOperation
+    public List<RequestTrace> slowRequests(@Nullable Integer limit) {
+        return requestTracer.getSlowestRequests(limit != null && limit > 0 ? limit : DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.todolist;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.persistence.FileJournal;
+import com.example.todolist.persistence.Journal;
+import com.example.todolist.persistence.JournalEntry;
+import com.example.todolist.persistence.JournalUnavailableException;
+import com.example.todolist.service.TaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileJournalTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testTasksSurviveRestart() {
+        FileJournal<Task> journal = open();
+        TaskService taskService = new TaskService(journal);
+        taskService.addTask(new Task("task4", "Nouvelle tâche", "user1", "company1"));
+        taskService.updateTask(new Task("task1", "Rapport mis à jour", "user2", "company1"));
+        taskService.deleteTask("task2");
+        journal.close();
+
+        FileJournal<Task> reopened = open();
+        TaskService restarted = new TaskService(reopened);
+        assertEquals("Rapport mis à jour", restarted.getTaskById("task1").orElseThrow().getDescription());
+        assertFalse(restarted.getTaskById("task2").isPresent());
+        assertTrue(restarted.getTaskById("task4").isPresent());
+        assertEquals(2, restarted.getTasksByCompanyId("company1").size());
+        reopened.close();
+    }
+
+    @Test
+    public void testCompactionKeepsStateAndEmptiesLog() throws Exception {
+        FileJournal<Task> journal = open();
+        TaskService taskService = new TaskService(journal);
+        for (int i = 0; i < 100; i++) {
+            taskService.updateTask(new Task("task1", "Version " + i, "user1", "company1"));
+        }
+        taskService.clearTasks();
+        taskService.addTask(new Task("task5", "Après vidage", "user1", "company1"));
+        journal.compact();
+        taskService.deleteTask("task5");
+        taskService.addTask(new Task("task6", "Après compaction", "user1", "company1"));
+        journal.close();
+
+        assertFalse(Files.exists(directory.resolve("tasks.log.previous")));
+        assertEquals(1, Files.readAllLines(directory.resolve("tasks.snapshot")).size());
+
+        FileJournal<Task> reopened = open();
+        TaskService restarted = new TaskService(reopened);
+        assertFalse(restarted.getTaskById("task1").isPresent());
+        assertFalse(restarted.getTaskById("task5").isPresent());
+        assertTrue(restarted.getTaskById("task6").isPresent());
+        reopened.close();
+    }
+
+    @Test
+    public void testTruncatedTailIsIgnored() throws Exception {
+        FileJournal<Task> journal = open();
+        new TaskService(journal).addTask(new Task("task4", "Nouvelle tâche", "user1", "company1"));
+        journal.close();
+        appendTruncatedLine();
+
+        // La fin interrompue est retirée à l'ouverture : l'écriture suivante commence sur une ligne propre
+        FileJournal<Task> reopened = open();
+        TaskService restarted = new TaskService(reopened);
+        assertTrue(restarted.getTaskById("task4").isPresent());
+        assertEquals(4, restarted.getAllTasks().size());
+        restarted.addTask(new Task("task5", "Après redémarrage", "user1", "company1"));
+        reopened.close();
+
+        FileJournal<Task> reopenedAgain = open();
+        TaskService restartedAgain = new TaskService(reopenedAgain);
+        assertTrue(restartedAgain.getTaskById("task4").isPresent());
+        assertTrue(restartedAgain.getTaskById("task5").isPresent());
+        reopenedAgain.close();
+    }
+
+    @Test
+    public void testCompactionAfterTruncatedTailKeepsLaterWrites() throws Exception {
+        FileJournal<Task> journal = open();
+        new TaskService(journal).addTask(new Task("task4", "Nouvelle tâche", "user1", "company1"));
+        journal.close();
+        appendTruncatedLine();
+
+        FileJournal<Task> reopened = open();
+        new TaskService(reopened).addTask(new Task("task5", "Après redémarrage", "user1", "company1"));
+        reopened.compact();
+        reopened.close();
+
+        FileJournal<Task> compacted = open();
+        TaskService restarted = new TaskService(compacted);
+        assertTrue(restarted.getTaskById("task4").isPresent());
+        assertTrue(restarted.getTaskById("task5").isPresent());
+        compacted.close();
+    }
+
+    @Test
+    public void testCorruptLineInsideLogFailsReplay() throws Exception {
+        FileJournal<Task> journal = open();
+        journal.close();
+        Files.write(directory.resolve("tasks.log"), "{\"operation\":\"PUT\",\"id\":\"ta\n{}\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        FileJournal<Task> reopened = open();
+        assertThrows(UncheckedIOException.class, () -> reopened.replay(entry -> { }));
+        reopened.close();
+    }
+
+    // Simule un arrêt brutal au milieu de l'écriture d'une ligne
+    private void appendTruncatedLine() throws IOException {
+        Files.write(directory.resolve("tasks.log"), "{\"operation\":\"PUT\",\"id\":\"ta".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    @Test
+    public void testRefusedWriteLeavesTasksUnchanged() {
+        AtomicBoolean available = new AtomicBoolean(true);
+        Journal<Task> journal = new Journal<>() {
+            @Override
+            public long replay(Consumer<JournalEntry<Task>> consumer) {
+                return 0;
+            }
+
+            @Override
+            public long append(JournalEntry<Task> entry) {
+                if (!available.get()) {
+                    throw new JournalUnavailableException(directory.resolve("tasks.log"), new IOException("No space left on device"));
+                }
+                return 0;
+            }
+
+            @Override
+            public void awaitDurable(long sequence) {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        TaskService taskService = new TaskService(journal);
+        Task expired = new Task("expired", "Échue", "user1", "company1");
+        expired.setExpiresAt(Instant.parse("2026-01-01T00:00:00Z"));
+        taskService.addTask(expired);
+        assertEquals(1, taskService.archiveExpiredTasks(Instant.parse("2026-01-02T00:00:00Z"), 10));
+
+        // Le journal refuse l'écriture avant qu'elle ne touche la mémoire
+        available.set(false);
+        assertThrows(JournalUnavailableException.class, () -> taskService.updateTask(new Task("expired", "Ramenée", "user1", "company1")));
+        assertThrows(JournalUnavailableException.class, () -> taskService.deleteTask("task1"));
+        assertEquals("Échue", taskService.getTaskById("expired").orElseThrow().getDescription());
+        assertNotNull(taskService.getTaskById("expired").orElseThrow().getArchivedAt());
+        assertTrue(taskService.getTaskById("task1").isPresent());
+        taskService.close();
+    }
+
+    private FileJournal<Task> open() {
+        return new FileJournal<>(directory, "tasks", Task.class, objectMapper, true, 0, 0);
+    }
+}
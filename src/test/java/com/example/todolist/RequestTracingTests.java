@@ -0,0 +1,81 @@
+package com.example.todolist;
+
+import com.example.todolist.model.Role;
+import com.example.todolist.model.Task;
+import com.example.todolist.model.User;
+import com.example.todolist.service.TaskService;
+import com.example.todolist.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"todolist.tracing.enabled=true", "todolist.tracing.slow-threshold=PT0S"})
+@AutoConfigureMockMvc
+public class RequestTracingTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    public void setup() {
+        taskService.clearTasks();
+        userService.clearUsers();
+        userService.addUser(new User("user2", "Bob", Role.COMPANY_ADMIN, "company1"));
+        userService.addUser(new User("user3", "Charlie", Role.SUPER_USER, null));
+        taskService.addTask(new Task("task1", "Compléter le rapport", "user1", "company1"));
+        taskService.addTask(new Task("task2", "Préparer la présentation", "user2", "company1"));
+        taskService.addTask(new Task("task3", "Organiser une réunion", "user3", "company2"));
+    }
+
+    @Test
+    public void testSlowestRequestsShowPhaseBreakdown() throws Exception {
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user3")
+                        .param("limit", "2"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/slowrequests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.endpoint == 'getAllTasks')].role", hasItem("SUPER_USER")))
+                .andExpect(jsonPath("$[?(@.endpoint == 'getAllTasks')].resultSize", hasItem(2)))
+                .andExpect(jsonPath("$[?(@.endpoint == 'getAllTasks')].phases.user").isNotEmpty())
+                .andExpect(jsonPath("$[?(@.endpoint == 'getAllTasks')].phases.policy").isNotEmpty())
+                .andExpect(jsonPath("$[?(@.endpoint == 'getAllTasks')].phases.scan").isNotEmpty())
+                .andExpect(jsonPath("$[?(@.endpoint == 'getAllTasks')].phases.serialize").isNotEmpty());
+    }
+
+    @Test
+    public void testStreamedResponsesAreNotCountedAsSlow() throws Exception {
+        MvcResult result = mockMvc.perform(get("/tasks/export")
+                        .param("userId", "user2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user2"))
+                .andExpect(status().isOk());
+
+        // Seuil nul : toute requête est lente, sauf les réponses en flux
+        mockMvc.perform(get("/actuator/slowrequests")
+                        .param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.endpoint == 'getAllTasks')].role", hasItem("COMPANY_ADMIN")))
+                .andExpect(jsonPath("$[?(@.endpoint == 'exportTasks')]").isEmpty());
+    }
+}
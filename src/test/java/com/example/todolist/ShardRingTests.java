@@ -0,0 +1,48 @@
+package com.example.todolist;
+
+import com.example.todolist.sharding.ShardRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardRingTests {
+
+    private static final List<String> NODES = List.of("http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+
+    @Test
+    public void testKeysAreSpreadAcrossNodes() {
+        ShardRing ring = new ShardRing(NODES, 128);
+        Map<String, Integer> keysPerNode = new HashMap<>();
+        for (int i = 0; i < 30000; i++) {
+            keysPerNode.merge(ring.ownerOf("company" + i), 1, Integer::sum);
+        }
+        assertEquals(3, keysPerNode.size());
+        // Chaque nœud reçoit un tiers des clés, à 20 % près
+        keysPerNode.values().forEach(count -> assertTrue(count > 8000 && count < 12000, "Unbalanced ring: " + keysPerNode));
+        assertEquals(ring.ownerOf(null), ring.ownerOf(""));
+    }
+
+    @Test
+    public void testAddingNodeMovesOnlyItsShareOfKeys() {
+        ShardRing ring = new ShardRing(NODES, 128);
+        ShardRing grown = new ShardRing(List.of("http://localhost:8080", "http://localhost:8081", "http://localhost:8082",
+                "http://localhost:8083"), 128);
+        int moved = 0;
+        for (int i = 0; i < 10000; i++) {
+            String owner = ring.ownerOf("company" + i);
+            String newOwner = grown.ownerOf("company" + i);
+            if (!owner.equals(newOwner)) {
+                // Une clé ne peut partir que vers le nouveau nœud
+                assertEquals("http://localhost:8083", newOwner);
+                moved++;
+            }
+        }
+        // Environ un quart des clés, et non la quasi-totalité comme avec un modulo
+        assertTrue(moved > 1500 && moved < 3500, "Moved keys: " + moved);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.todolist;
+
+import com.example.todolist.model.BatchItemResult;
+import com.example.todolist.model.Task;
+import com.example.todolist.service.TaskService;
+import com.example.todolist.sharding.ShardRing;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Deux nœuds réels en mode partitionné : routage des créations et lectures, fusion des listes, écritures par lot
+ * reçues par un nœud qui ne possède pas toutes les compagnies.
+ */
+public class ShardRoutingTests {
+
+    private static final String FORWARDED_HEADER = "X-Todolist-Forwarded";
+
+    private static final HttpClient httpClient = HttpClient.newHttpClient();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static String nodeA;
+    private static String nodeB;
+    private static ConfigurableApplicationContext contextA;
+    private static ConfigurableApplicationContext contextB;
+
+    // Une compagnie possédée par chaque nœud
+    private static String companyA;
+    private static String companyB;
+
+    @BeforeAll
+    public static void startNodes() throws IOException {
+        nodeA = "http://localhost:" + freePort();
+        nodeB = "http://localhost:" + freePort();
+        contextA = startNode(nodeA);
+        contextB = startNode(nodeB);
+        ShardRing ring = new ShardRing(List.of(nodeA, nodeB), 128);
+        for (int i = 0; companyA == null || companyB == null; i++) {
+            if (ring.ownerOf("company" + i).equals(nodeA)) {
+                companyA = companyA == null ? "company" + i : companyA;
+            } else {
+                companyB = companyB == null ? "company" + i : companyB;
+            }
+        }
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        contextA.close();
+        contextB.close();
+    }
+
+    @BeforeEach
+    public void setup() {
+        contextA.getBean(TaskService.class).clearTasks();
+        contextB.getBean(TaskService.class).clearTasks();
+    }
+
+    @Test
+    public void testCreateIsForwardedToOwner() throws Exception {
+        assertEquals(201, send(nodeA, "POST", "/tasks?userId=user3", new Task("task1", "Tâche", "user1", companyB), false).statusCode());
+
+        // Stockée par le propriétaire uniquement, et lisible depuis l'autre nœud
+        assertEquals(404, send(nodeA, "GET", "/tasks/task1?userId=user3", null, true).statusCode());
+        assertEquals(200, send(nodeB, "GET", "/tasks/task1?userId=user3", null, true).statusCode());
+        assertEquals(200, send(nodeA, "GET", "/tasks/task1?userId=user3", null, false).statusCode());
+    }
+
+    @Test
+    public void testListingsMergeAllShards() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            Task task = new Task("task" + i, "Tâche " + i, "user1", i % 2 == 1 ? companyA : companyB);
+            assertEquals(201, send(nodeA, "POST", "/tasks?userId=user3", task, false).statusCode());
+        }
+
+        HttpResponse<String> page = send(nodeA, "GET", "/tasks?userId=user3&limit=3", null, false);
+        assertEquals(200, page.statusCode());
+        assertEquals(List.of("task1", "task2", "task3"), ids(objectMapper.readValue(page.body(), new TypeReference<List<Task>>() { })));
+        assertEquals("task3", page.headers().firstValue("X-Next-Cursor").orElseThrow());
+
+        HttpRequest ndjsonRequest = HttpRequest.newBuilder(URI.create(nodeB + "/tasks?userId=user3"))
+                .header("Accept", "application/x-ndjson")
+                .build();
+        HttpResponse<String> ndjson = httpClient.send(ndjsonRequest, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, ndjson.statusCode());
+        List<String> streamed = Arrays.stream(ndjson.body().split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, Task.class).getId();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+        assertEquals(List.of("task1", "task2", "task3", "task4"), streamed);
+    }
+
+    @Test
+    public void testBatchWritesRejectTasksOfOtherShards() throws Exception {
+        List<Task> tasks = List.of(new Task("task1", "Locale", "user1", companyA), new Task("task2", "Distante", "user1", companyB));
+        HttpResponse<String> created = send(nodeA, "POST", "/tasks/batch?userId=user3", tasks, false);
+        assertEquals(200, created.statusCode());
+        assertEquals(List.of(201, 409), statuses(created));
+
+        // Une mise à jour par lot ne déplace pas une tâche vers une compagnie d'un autre nœud
+        HttpResponse<String> updated = send(nodeA, "PUT", "/tasks/batch?userId=user3",
+                List.of(new Task("task1", "Déplacée", "user1", companyB)), false);
+        assertEquals(List.of(409), statuses(updated));
+
+        assertEquals(companyA, contextA.getBean(TaskService.class).getTaskById("task1").orElseThrow().getCompanyId());
+        assertEquals(1, contextA.getBean(TaskService.class).getTaskCount());
+        assertEquals(0, contextB.getBean(TaskService.class).getTaskCount());
+    }
+
+    private static ConfigurableApplicationContext startNode(String self) {
+        return new SpringApplicationBuilder(SportsUnityApplication.class).run(
+                "--server.port=" + URI.create(self).getPort(),
+                "--todolist.sharding.enabled=true",
+                "--todolist.sharding.self=" + self,
+                "--todolist.sharding.nodes=" + nodeA + "," + nodeB);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Requête JSON ; forwarded = true pour que le nœud la traite localement, sans routage
+    private static HttpResponse<String> send(String node, String method, String path, Object body, boolean forwarded) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (forwarded) {
+            request.header(FORWARDED_HEADER, node);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static List<Integer> statuses(HttpResponse<String> response) throws IOException {
+        return objectMapper.readValue(response.body(), new TypeReference<List<BatchItemResult>>() { }).stream()
+                .map(BatchItemResult::getStatus)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
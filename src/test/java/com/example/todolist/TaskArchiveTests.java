@@ -0,0 +1,101 @@
+package com.example.todolist;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.service.TaskService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskArchiveTests {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    public void testOnlyExpiredTasksAreArchived() {
+        TaskService taskService = new TaskService();
+        taskService.clearTasks();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Task task = new Task(String.format("task%04d", i), "Tâche " + i, "user" + (i % 7), "company" + (i % 3));
+            task.setExpiresAt(NOW.plusSeconds(i % 2 == 0 ? -60 : 60));
+            tasks.add(task);
+        }
+        tasks.add(new Task("task9999", "Sans échéance", "user1", "company1"));
+        taskService.addTasks(tasks);
+        List<Task> removed = new ArrayList<>();
+        taskService.addListener((previous, current) -> {
+            if (current == null) {
+                removed.add(previous);
+            }
+        });
+
+        assertEquals(300, taskService.archiveExpiredTasks(NOW, 300));
+        assertEquals(200, taskService.archiveExpiredTasks(NOW, 300));
+        assertEquals(0, taskService.archiveExpiredTasks(NOW, 300));
+
+        assertEquals(501, taskService.getTaskCount());
+        assertEquals(500, taskService.getArchivedTaskCount());
+        assertEquals(501, taskService.getStats().getTotal());
+        // Les abonnés au flux voient chaque tâche archivée quitter les listes
+        assertEquals(500, removed.size());
+        assertTrue(removed.stream().allMatch(task -> task.getExpiresAt().isBefore(NOW)));
+        assertTrue(taskService.streamAllTasks(null).allMatch(task -> task.getArchivedAt() == null));
+        assertTrue(taskService.searchTasks("tâche 42", task -> true, 10).stream().noneMatch(task -> task.getId().equals("task0042")));
+
+        Task archived = taskService.getTaskById("task0042").orElseThrow();
+        assertEquals("Tâche 42", archived.getDescription());
+        assertEquals("user0", archived.getAssignedToUserId());
+        assertEquals("company0", archived.getCompanyId());
+        assertEquals(NOW.minusSeconds(60), archived.getExpiresAt());
+        assertEquals(NOW, archived.getArchivedAt());
+        taskService.close();
+    }
+
+    @Test
+    public void testCompactionKeepsRemainingArchivedTasks() {
+        TaskService taskService = new TaskService();
+        taskService.clearTasks();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            Task task = new Task(String.format("task%04d", i), "Tâche " + i, "user1", "company1");
+            task.setExpiresAt(NOW.minusSeconds(1));
+            tasks.add(task);
+        }
+        taskService.addTasks(tasks);
+        assertEquals(1024, taskService.archiveExpiredTasks(NOW, Integer.MAX_VALUE));
+        // Quatre segments compressés : environ 80 octets par tâche encodée, moins de 20 une fois compressée
+        long sizeBeforeDeletion = taskService.getArchiveSizeInBytes();
+        assertTrue(sizeBeforeDeletion < 1024 * 20, "Archive not compressed: " + sizeBeforeDeletion);
+
+        // Trois tâches sur quatre quittent l'archive : supprimées, ou recréées parmi les tâches actives
+        List<String> deleted = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            if (i % 4 == 1) {
+                taskService.addTask(new Task(String.format("task%04d", i), "Recréée", "user1", "company1"));
+            } else if (i % 4 != 0) {
+                deleted.add(String.format("task%04d", i));
+            }
+        }
+        taskService.deleteTasks(deleted);
+        assertEquals(256, taskService.getArchivedTaskCount());
+
+        assertEquals(4, taskService.compactArchive());
+        assertTrue(taskService.getArchiveSizeInBytes() < sizeBeforeDeletion / 2);
+        for (int i = 0; i < 1024; i++) {
+            Optional<Task> task = taskService.getTaskById(String.format("task%04d", i));
+            switch (i % 4) {
+                case 0 -> assertEquals(NOW, task.orElseThrow().getArchivedAt());
+                case 1 -> assertEquals("Recréée", task.orElseThrow().getDescription());
+                default -> assertFalse(task.isPresent());
+            }
+        }
+        taskService.close();
+    }
+}
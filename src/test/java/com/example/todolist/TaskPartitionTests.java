@@ -0,0 +1,156 @@
+package com.example.todolist;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.model.TenantUsage;
+import com.example.todolist.persistence.Journal;
+import com.example.todolist.service.TaskLimitExceededException;
+import com.example.todolist.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskPartitionTests {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    public void testEvictedCompanyIsReloadedOnAccess() {
+        TaskService taskService = new TaskService(Journal.noop(), 50_000, 1, 0, spillDirectory);
+        taskService.clearTasks();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tasks.add(new Task(String.format("task%03d", i), "Tâche " + i, "user" + (i % 4), "company" + (i % 3)));
+        }
+        Task expired = new Task("expired", "Échue", "user1", "company1");
+        expired.setExpiresAt(NOW.minusSeconds(1));
+        tasks.add(expired);
+        taskService.addTasks(tasks);
+        assertEquals(1, taskService.archiveExpiredTasks(NOW, 10));
+
+        List<Task> company1 = taskService.getTasksByCompanyId("company1");
+        List<String> user1 = ids(taskService.getTasksByAssignedToUserId("user1"));
+        long company1Version = taskService.getCompanyVersion("company1");
+        TenantUsage loaded = taskService.getTenantUsage("company1").orElseThrow();
+        assertTrue(loaded.isLoaded());
+        assertEquals(100, loaded.getTaskCount());
+        assertEquals(1, loaded.getArchivedTaskCount());
+
+        assertTrue(taskService.evictCompany("company1"));
+        TenantUsage evicted = taskService.getTenantUsage("company1").orElseThrow();
+        assertFalse(evicted.isLoaded());
+        assertEquals(100, evicted.getTaskCount());
+        assertEquals(1, evicted.getArchivedTaskCount());
+        assertTrue(evicted.getSizeInBytes() > 0 && evicted.getSizeInBytes() < loaded.getSizeInBytes());
+        assertEquals(300, taskService.getTaskCount());
+        assertEquals(company1Version, taskService.getCompanyVersion("company1"));
+
+        // Les autres compagnies ne sont pas touchées ; une liste de la compagnie déchargée la recharge
+        assertEquals(100, taskService.getTasksByCompanyId("company0").size());
+        assertFalse(taskService.getTenantUsage("company1").orElseThrow().isLoaded());
+        assertEquals(ids(company1), ids(taskService.getTasksByCompanyId("company1")));
+        assertTrue(taskService.getTenantUsage("company1").orElseThrow().isLoaded());
+
+        // Lecture par ID, y compris d'une tâche archivée, et liste par assigné fusionnée entre compagnies
+        assertTrue(taskService.evictCompany("company1"));
+        assertEquals(NOW, taskService.getTaskById("expired").orElseThrow().getArchivedAt());
+        assertTrue(taskService.evictCompany("company1"));
+        assertEquals(user1, ids(taskService.getTasksByAssignedToUserId("user1")));
+        assertEquals(75, user1.size());
+        assertEquals(user1.stream().sorted().collect(Collectors.toList()), user1);
+        taskService.close();
+    }
+
+    @Test
+    public void testTaskMovedBetweenCompaniesLeavesItsPartition() {
+        TaskService taskService = new TaskService(Journal.noop(), 50_000, 1, 0, spillDirectory);
+        taskService.clearTasks();
+        taskService.addTask(new Task("task1", "Tâche", "user1", "company1"));
+        taskService.addTask(new Task("task2", "Autre tâche", "user2", "company2"));
+        assertTrue(taskService.evictCompany("company2"));
+        taskService.updateTask(new Task("task1", "Tâche déplacée", "user1", "company2"));
+
+        assertTrue(taskService.getTasksByCompanyId("company1").isEmpty());
+        assertEquals(List.of("task1", "task2"), ids(taskService.getTasksByCompanyId("company2")));
+        assertEquals("Tâche déplacée", taskService.getTasksByCompanyId("company2").get(0).getDescription());
+        assertEquals("company2", taskService.getTaskById("task1").orElseThrow().getCompanyId());
+        assertEquals(List.of("task1"), ids(taskService.getTasksByAssignedToUserId("user1")));
+        assertEquals(1, taskService.getCompanyCount());
+        taskService.close();
+    }
+
+    @Test
+    public void testCompanyTaskLimit() {
+        TaskService taskService = new TaskService(Journal.noop(), 50_000, 1, 2, spillDirectory);
+        taskService.clearTasks();
+        taskService.addTask(new Task("task1", "Tâche 1", "user1", "company1"));
+        taskService.addTask(new Task("task2", "Tâche 2", "user1", "company1"));
+
+        assertThrows(TaskLimitExceededException.class, () -> taskService.addTask(new Task("task3", "Tâche 3", "user1", "company1")));
+        // Une mise à jour dans la même compagnie ne compte pas une tâche de plus ; les autres compagnies ne sont pas limitées par celle-ci
+        taskService.updateTask(new Task("task2", "Tâche 2 modifiée", "user1", "company1"));
+        taskService.addTask(new Task("task4", "Tâche 4", "user1", "company2"));
+        assertThrows(TaskLimitExceededException.class, () -> taskService.updateTask(new Task("task4", "Tâche 4", "user1", "company1")));
+
+        List<String> refused = taskService.addTasks(List.of(
+                new Task("task5", "Tâche 5", "user1", "company2"),
+                new Task("task6", "Tâche 6", "user1", "company2")));
+        assertEquals(List.of("task6"), refused);
+        assertEquals(List.of("task1", "task2"), ids(taskService.getTasksByCompanyId("company1")));
+        assertEquals(List.of("task4", "task5"), ids(taskService.getTasksByCompanyId("company2")));
+        assertEquals(4, taskService.getTaskCount());
+
+        taskService.deleteTask("task1");
+        taskService.addTask(new Task("task3", "Tâche 3", "user1", "company1"));
+        assertEquals(List.of("task2", "task3"), ids(taskService.getTasksByCompanyId("company1")));
+        taskService.close();
+    }
+
+    @Test
+    public void testWritesRacingEvictionAreKept() throws Exception {
+        TaskService taskService = new TaskService(Journal.noop(), 50_000, 1, 0, spillDirectory);
+        taskService.clearTasks();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    taskService.addTask(new Task("task" + thread + "-" + i, "Tâche " + i, "user" + thread, "company1"));
+                }
+            }));
+        }
+        // Les écritures rechargent la partition hors du verrou de la tâche et recommencent si elle est déchargée entre-temps
+        while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+            taskService.evictCompany("company1");
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+
+        assertEquals(2000, taskService.getTaskCount());
+        assertEquals(2000, taskService.getTasksByCompanyId("company1").size());
+        assertEquals(500, taskService.getTasksByAssignedToUserId("user3").size());
+        taskService.close();
+    }
+
+    private static List<String> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
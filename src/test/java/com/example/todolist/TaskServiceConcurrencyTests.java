@@ -0,0 +1,131 @@
+package com.example.todolist;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.model.TaskStats;
+import com.example.todolist.persistence.Journal;
+import com.example.todolist.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskServiceConcurrencyTests {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 2_000;
+
+    private TaskService taskService;
+
+    @BeforeEach
+    public void setup() {
+        taskService = new TaskService();
+        taskService.clearTasks();
+    }
+
+    @Test
+    public void testConcurrentReplaceLosesNoUpdate() throws Exception {
+        taskService.addTask(new Task("counter", "0", "user1", "company1"));
+
+        runConcurrently(() -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                // Boucle lecture / remplacement atomique, comme PUT /tasks/{taskId}
+                while (true) {
+                    Task current = taskService.getTaskById("counter").orElseThrow();
+                    String next = String.valueOf(Integer.parseInt(current.getDescription()) + 1);
+                    if (taskService.replaceTask(current, new Task("counter", next, "user1", "company1"))) {
+                        break;
+                    }
+                }
+            }
+            return null;
+        });
+
+        assertEquals(String.valueOf(THREADS * ITERATIONS), taskService.getTaskById("counter").orElseThrow().getDescription());
+    }
+
+    @Test
+    public void testConcurrentReassignmentsKeepIndexesConsistent() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            taskService.addTask(new Task("task" + i, "Tâche " + i, "user1", "company1"));
+        }
+
+        runConcurrently(() -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                String taskId = "task" + (i % 100);
+                String suffix = String.valueOf(Thread.currentThread().getId() % 3);
+                taskService.updateTask(new Task(taskId, "Tâche", "user" + suffix, "company" + suffix));
+            }
+            return null;
+        });
+
+        int byCompany = 0;
+        int byAssignee = 0;
+        for (int i = 0; i < 3; i++) {
+            byCompany += taskService.getTasksByCompanyId("company" + i).size();
+            byAssignee += taskService.getTasksByAssignedToUserId("user" + i).size();
+        }
+        assertEquals(100, byCompany);
+        assertEquals(100, byAssignee);
+
+        // Les compteurs suivent les réassignations entre compagnies
+        TaskStats stats = taskService.getStats();
+        assertEquals(100, stats.getTotal());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(taskService.getTasksByCompanyId("company" + i).size(), stats.getByCompanyId().getOrDefault("company" + i, 0L));
+            assertEquals(taskService.getTasksByAssignedToUserId("user" + i).size(), stats.getByAssignedToUserId().getOrDefault("user" + i, 0L));
+        }
+    }
+
+    @Test
+    public void testParallelScanKeepsIdOrder() {
+        // Seuil nul : chaque liste est construite en parallèle sur le pool de parcours
+        TaskService parallelTaskService = new TaskService(Journal.noop(), 0, 4);
+        parallelTaskService.clearTasks();
+        for (int i = 0; i < 10_000; i++) {
+            Task task = new Task(String.format("task%05d", (i * 7919) % 10_000), "Tâche " + i, "user" + (i % 7), "company" + (i % 3));
+            parallelTaskService.addTask(task);
+            taskService.addTask(new Task(task.getId(), task.getDescription(), task.getAssignedToUserId(), task.getCompanyId()));
+        }
+        try {
+            assertEquals(ids(taskService.streamAllTasks("task04000")), ids(parallelTaskService.listAllTasks("task04000").stream()));
+            assertEquals(ids(taskService.streamTasksByCompanyId("company1", null)), ids(parallelTaskService.listTasksByCompanyId("company1", null).stream()));
+            assertEquals(ids(taskService.streamTasksByAssignedToUserId("user2", null)), ids(parallelTaskService.listTasksByAssignedToUserId("user2", null).stream()));
+        } finally {
+            parallelTaskService.close();
+        }
+    }
+
+    private static List<String> ids(Stream<Task> tasks) {
+        return tasks.map(Task::getId).collect(Collectors.toList());
+    }
+
+    private void runConcurrently(Callable<Void> work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return work.call();
+            }));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.todolist;
+
+import com.example.todolist.model.Task;
+import com.example.todolist.persistence.Journal;
+import com.example.todolist.persistence.JournalEntry;
+import com.example.todolist.service.TaskService;
+import com.example.todolist.service.TaskWritePipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskWritePipelineTests {
+
+    private GatedJournal journal;
+    private TaskService taskService;
+    private TaskWritePipeline pipeline;
+
+    @BeforeEach
+    public void setup() {
+        journal = new GatedJournal();
+        taskService = new TaskService(journal);
+        taskService.clearTasks();
+        pipeline = new TaskWritePipeline(taskService, true, 8, 4, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        journal.open();
+        pipeline.close();
+    }
+
+    @Test
+    public void testConcurrentWritesAreAllAppliedInBatches() throws Exception {
+        pipeline.close();
+        pipeline = new TaskWritePipeline(taskService, true, 1024, 64, Duration.ofSeconds(5));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Boolean>> writes = new ArrayList<>();
+        try {
+            List<CompletableFuture<CompletableFuture<Boolean>>> submissions = new ArrayList<>();
+            for (int i = 0; i < 800; i++) {
+                Task task = new Task("task" + i, "Tâche " + i, "user1", "company1");
+                submissions.add(CompletableFuture.supplyAsync(() -> {
+                    // File pleine : l'appelant réessaie, comme un client après un 503
+                    CompletableFuture<Boolean> write;
+                    while ((write = pipeline.put("user1", task)) == null) {
+                        Thread.onSpinWait();
+                    }
+                    return write;
+                }, executor));
+            }
+            for (CompletableFuture<CompletableFuture<Boolean>> submission : submissions) {
+                writes.add(submission.get(10, TimeUnit.SECONDS));
+            }
+            for (CompletableFuture<Boolean> write : writes) {
+                assertTrue(write.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(800, taskService.getTaskCount());
+        // Une attente de durabilité par lot, et non par écriture
+        assertTrue(journal.awaits.get() < 800, "Durability waits: " + journal.awaits.get());
+    }
+
+    @Test
+    public void testFullQueueRejectsAndReadYourWritesWaits() throws Exception {
+        taskService.addTask(new Task("task0", "Tâche", "user1", "company1"));
+        Task existing = taskService.getTaskById("task0").orElseThrow();
+        journal.block();
+
+        // L'écrivain reste bloqué sur l'attente de durabilité de son premier lot : la file se remplit
+        List<CompletableFuture<Boolean>> writes = new ArrayList<>();
+        CompletableFuture<Boolean> write;
+        int i = 1;
+        while ((write = pipeline.put("user1", new Task("task" + i, "Tâche " + i, "user1", "company1"))) != null) {
+            writes.add(write);
+            i++;
+            assertTrue(i < 100, "The write queue is not bounded");
+        }
+        assertNull(pipeline.delete("user1", "task0"));
+        assertFalse(writes.get(writes.size() - 1).isDone());
+
+        CountDownLatch read = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            pipeline.awaitWrites("user1");
+            read.countDown();
+        });
+        reader.start();
+        assertFalse(read.await(100, TimeUnit.MILLISECONDS));
+
+        journal.open();
+        assertTrue(read.await(5, TimeUnit.SECONDS));
+        assertEquals(writes.size() + 1, taskService.getTaskCount());
+
+        // Remplacement à partir d'une version périmée : refusé
+        CompletableFuture<Boolean> replaced = pipeline.replace("user1", existing, new Task("task0", "Nouvelle", "user1", "company1"));
+        assertNotNull(replaced);
+        assertTrue(replaced.get(5, TimeUnit.SECONDS));
+        assertFalse(pipeline.replace("user1", existing, new Task("task0", "Périmée", "user1", "company1")).get(5, TimeUnit.SECONDS));
+        assertEquals("Nouvelle", taskService.getTaskById("task0").orElseThrow().getDescription());
+    }
+
+    @Test
+    public void testWritesRacingCloseAreAllCompleted() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 200; round++) {
+                pipeline.close();
+                pipeline = new TaskWritePipeline(taskService, true, 1024, 4, Duration.ofSeconds(5));
+                TaskWritePipeline racing = pipeline;
+                CountDownLatch start = new CountDownLatch(1);
+                List<CompletableFuture<List<CompletableFuture<Boolean>>>> submitters = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int thread = t;
+                    submitters.add(CompletableFuture.supplyAsync(() -> {
+                        List<CompletableFuture<Boolean>> accepted = new ArrayList<>();
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        CompletableFuture<Boolean> write;
+                        for (int i = 0; (write = racing.delete("user1", "task" + thread + "-" + i)) != null; i++) {
+                            accepted.add(write);
+                        }
+                        return accepted;
+                    }, executor));
+                }
+                start.countDown();
+                Thread.yield();
+                racing.close();
+
+                // Appliquée ou refusée, chaque écriture acceptée est acquittée : aucune ne reste dans la file
+                for (CompletableFuture<List<CompletableFuture<Boolean>>> submitter : submitters) {
+                    for (CompletableFuture<Boolean> write : submitter.get(10, TimeUnit.SECONDS)) {
+                        try {
+                            write.get(5, TimeUnit.SECONDS);
+                        } catch (ExecutionException e) {
+                            assertTrue(e.getCause() instanceof IllegalStateException, e.toString());
+                        }
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Journal en mémoire dont l'attente de durabilité peut être bloquée
+    private static class GatedJournal implements Journal<Task> {
+
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicInteger awaits = new AtomicInteger();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public long replay(Consumer<JournalEntry<Task>> consumer) {
+            return 0;
+        }
+
+        @Override
+        public long append(JournalEntry<Task> entry) {
+            return sequence.incrementAndGet();
+        }
+
+        @Override
+        public void awaitDurable(long sequence) {
+            awaits.incrementAndGet();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        // Bloque les attentes de durabilité suivantes
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void open() {
+            gate.countDown();
+        }
+    }
+}
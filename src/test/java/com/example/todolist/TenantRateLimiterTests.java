@@ -0,0 +1,60 @@
+package com.example.todolist;
+
+import com.example.todolist.model.Role;
+import com.example.todolist.model.User;
+import com.example.todolist.ratelimit.TenantRateLimiter;
+import com.example.todolist.ratelimit.TenantRateLimiter.Quota;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TenantRateLimiterTests {
+
+    private final AtomicLong now = new AtomicLong();
+    private TenantRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        // 10 requêtes par seconde, rafale de 5 ; company2 : 1 requête par seconde, rafale de 1
+        rateLimiter = new TenantRateLimiter(new Quota(10, 5), new Quota(100, 50),
+                Map.of("company2", new Quota(1, 1)), now::get);
+    }
+
+    @Test
+    public void testBurstThenRefill() {
+        User alice = new User("user1", "Alice", Role.STANDARD, "company1");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(alice));
+        }
+        long wait = rateLimiter.tryAcquire(alice);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+
+        now.addAndGet(wait);
+        assertEquals(0, rateLimiter.tryAcquire(alice));
+    }
+
+    @Test
+    public void testTenantsHaveSeparateBudgets() {
+        User alice = new User("user1", "Alice", Role.STANDARD, "company1");
+        User bob = new User("user2", "Bob", Role.COMPANY_ADMIN, "company1");
+        User eve = new User("user4", "Eve", Role.STANDARD, "company2");
+        User root = new User("user3", "Charlie", Role.SUPER_USER, null);
+
+        // Les utilisateurs d'une même compagnie partagent le seau
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(i % 2 == 0 ? alice : bob));
+        }
+        assertTrue(rateLimiter.tryAcquire(bob) > 0);
+
+        // Quota spécifique de company2, et budget distinct des Super Users
+        assertEquals(0, rateLimiter.tryAcquire(eve));
+        assertTrue(rateLimiter.tryAcquire(eve) > 0);
+        assertEquals(0, rateLimiter.tryAcquire(root));
+    }
+}
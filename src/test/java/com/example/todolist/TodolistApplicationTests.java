@@ -5,6 +5,10 @@ import com.example.todolist.model.Task;
 import com.example.todolist.model.User;
 import com.example.todolist.service.TaskService;
 import com.example.todolist.service.UserService;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,8 +16,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -33,6 +46,9 @@ public class TodolistApplicationTests {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     public void setup() {
         // Réinitialiser les données avant chaque test
@@ -82,6 +98,254 @@ public class TodolistApplicationTests {
                 .andExpect(jsonPath("$", hasSize(3)));
     }
 
+    @Test
+    public void testGetTasksWithCursorPagination() throws Exception {
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user3")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "task2"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value("task1"))
+                .andExpect(jsonPath("$[1].id").value("task2"));
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user3")
+                        .param("limit", "2")
+                        .param("cursor", "task2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value("task3"));
+    }
+
+    @Test
+    public void testStreamTasksAsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/tasks")
+                        .param("userId", "user2")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(allOf(
+                        containsString("\"id\":\"task1\""),
+                        containsString("\"id\":\"task2\""),
+                        not(containsString("\"id\":\"task3\"")))));
+    }
+
+    @Test
+    public void testConditionalGetTasksReturnsNotModifiedUntilScopeChanges() throws Exception {
+        String eTag = mockMvc.perform(get("/tasks")
+                        .param("userId", "user2"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user2")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Une écriture hors de company1 ne change pas la liste de l'administrateur
+        taskService.addTask(new Task("task4", "Classer les factures", "user3", "company2"));
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user2")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        taskService.addTask(new Task("task5", "Relancer le fournisseur", "user1", "company1"));
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user2")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    @Test
+    public void testCompanyAdminsShareCachedListing() throws Exception {
+        userService.addUser(new User("user4", "Diane", Role.COMPANY_ADMIN, "company1"));
+        FunctionCounter hits = meterRegistry.find("todolist.listing.cache.requests").tag("result", "hit").functionCounter();
+        assertNotNull(hits);
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+        double hitsBefore = hits.count();
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user4"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)));
+        assertEquals(hitsBefore + 1, hits.count());
+
+        // Une écriture dans la compagnie invalide l'entrée
+        taskService.addTask(new Task("task4", "Mettre à jour le planning", "user1", "company1"));
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    @Test
+    public void testUpdateTaskWithStaleIfMatchIsRejected() throws Exception {
+        String eTag = mockMvc.perform(get("/tasks/task1")
+                        .param("userId", "user1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/tasks/task1")
+                        .param("userId", "user1")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        String updatedTaskJson = "{\"description\":\"Rapport final\",\"assignedToUserId\":\"user1\",\"companyId\":\"company1\"}";
+        mockMvc.perform(put("/tasks/task1")
+                        .param("userId", "user1")
+                        .header("If-Match", eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedTaskJson))
+                .andExpect(status().isOk());
+
+        // L'ETag lu avant la première mise à jour n'est plus valide
+        mockMvc.perform(put("/tasks/task1")
+                        .param("userId", "user1")
+                        .header("If-Match", eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedTaskJson))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void testTasksCanBeExchangedAsCbor() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        mockMvc.perform(post("/tasks")
+                        .param("userId", "user1")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(new Task("task4", "Réserver la salle", "user1", "company1"))))
+                .andExpect(status().isCreated());
+
+        byte[] body = mockMvc.perform(get("/tasks")
+                        .param("userId", "user1")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        Task[] tasks = cborMapper.readValue(body, Task[].class);
+        assertEquals(2, tasks.length);
+        assertEquals("Réserver la salle", tasks[1].getDescription());
+
+        mockMvc.perform(get("/tasks/task4")
+                        .param("userId", "user1")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    public void testChangeFeedOnlyPushesVisibleTasks() throws Exception {
+        MvcResult result = mockMvc.perform(get("/tasks/stream")
+                        .param("userId", "user1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        taskService.addTask(new Task("task4", "Relire le contrat", "user1", "company1"));
+        taskService.addTask(new Task("task5", "Appeler le client", "user2", "company1"));
+        // Réassignation : la tâche sort du périmètre de user1, qui la voit supprimée
+        taskService.updateTask(new Task("task1", "Compléter le rapport", "user2", "company1"));
+
+        String content = "";
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!content.contains("event:DELETED") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+
+        assertThat(content, allOf(
+                containsString("event:CREATED"),
+                containsString("\"taskId\":\"task4\""),
+                not(containsString("task5")),
+                containsString("event:DELETED"),
+                containsString("\"taskId\":\"task1\",\"task\":null")));
+    }
+
+    @Test
+    public void testReplacedUserIsNotServedFromCache() throws Exception {
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user1"))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        userService.addUser(new User("user1", "Alice", Role.COMPANY_ADMIN, "company1"));
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user1"))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    public void testRequestsAndDenialsAreMeasured() throws Exception {
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/task2")
+                        .param("userId", "user1"))
+                .andExpect(status().isForbidden());
+
+        assertNotNull(meterRegistry.find("todolist.http.requests")
+                .tags("endpoint", "getAllTasks", "role", "STANDARD", "status", "200").timer());
+        assertNotNull(meterRegistry.find("todolist.permission.denials")
+                .tags("role", "STANDARD", "action", "read").counter());
+    }
+
+    @Test
+    public void testAsyncRequestIsMeasuredFromItsFirstDispatch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/tasks/export")
+                        .param("userId", "user2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Thread.sleep(100);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        Timer timer = meterRegistry.find("todolist.http.requests")
+                .tags("endpoint", "exportTasks", "status", "200").timer();
+        assertNotNull(timer);
+        assertThat(timer.max(TimeUnit.MILLISECONDS), greaterThanOrEqualTo(100.0));
+    }
+
+    // **GET /tasks/search?userId={userId}&q={query}**
+
+    @Test
+    public void testSearchTasksIgnoresAccentsAndCase() throws Exception {
+        mockMvc.perform(get("/tasks/search")
+                        .param("userId", "user3")
+                        .param("q", "REUNION"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value("task3"));
+    }
+
+    @Test
+    public void testSearchTasksByPrefixIsFilteredByRole() throws Exception {
+        mockMvc.perform(get("/tasks/search")
+                        .param("userId", "user2")
+                        .param("q", "prés*"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value("task2"));
+
+        mockMvc.perform(get("/tasks/search")
+                        .param("userId", "user1")
+                        .param("q", "prés*"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     // **GET /tasks/{taskId}?userId={userId}**
 
     @Test
@@ -117,6 +381,19 @@ public class TodolistApplicationTests {
                 .andExpect(jsonPath("$.id").value("task3"));
     }
 
+    @Test
+    public void testTaskWithoutCompanyIsForbiddenForCompanyAdmin() throws Exception {
+        taskService.addTask(new Task("task10", "Sans compagnie", null, null));
+
+        mockMvc.perform(get("/tasks/task10")
+                        .param("userId", "user2"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/tasks/task10")
+                        .param("userId", "user1"))
+                .andExpect(status().isForbidden());
+    }
+
     // **POST /tasks?userId={userId}**
 
     @Test
@@ -171,6 +448,26 @@ public class TodolistApplicationTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void testReassignedTaskLeavesPreviousAssigneeListing() throws Exception {
+        String updatedTaskJson = "{ \"id\": \"task1\", \"description\": \"Réassignée\", \"assignedToUserId\": \"user2\", \"companyId\": \"company1\" }";
+        mockMvc.perform(put("/tasks/task1")
+                        .param("userId", "user2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedTaskJson))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
     // **DELETE /tasks/{taskId}?userId={userId}**
 
     @Test
@@ -193,4 +490,252 @@ public class TodolistApplicationTests {
                         .param("userId", "user3"))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWritesWithRespondAsync() throws Exception {
+        MvcResult created = mockMvc.perform(post("/tasks")
+                        .param("userId", "user1")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"id\": \"task4\", \"description\": \"Nouvelle tâche\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" }"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(created))
+                .andExpect(status().isCreated());
+
+        MvcResult updated = mockMvc.perform(put("/tasks/task4")
+                        .param("userId", "user1")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"description\": \"Tâche modifiée\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" }"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(updated))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/tasks/task4")
+                        .param("userId", "user1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Tâche modifiée"));
+
+        MvcResult denied = mockMvc.perform(delete("/tasks/task2")
+                        .param("userId", "user1")
+                        .header("Prefer", "respond-async"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(denied))
+                .andExpect(status().isForbidden());
+    }
+
+    // **GET /tasks/stats?userId={userId}**
+
+    @Test
+    public void testGetTaskStatsByRole() throws Exception {
+        mockMvc.perform(get("/tasks/stats")
+                        .param("userId", "user3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.byCompanyId.company1").value(2))
+                .andExpect(jsonPath("$.byCompanyId.company2").value(1))
+                .andExpect(jsonPath("$.byAssignedToUserId.user3").value(1));
+
+        mockMvc.perform(get("/tasks/stats")
+                        .param("userId", "user2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.byCompanyId.company2").doesNotExist())
+                .andExpect(jsonPath("$.byAssignedToUserId.user1").value(1))
+                .andExpect(jsonPath("$.byAssignedToUserId.user2").value(1));
+
+        mockMvc.perform(get("/tasks/stats")
+                        .param("userId", "user1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.byCompanyId.company1").value(1))
+                .andExpect(jsonPath("$.byAssignedToUserId.user2").doesNotExist());
+    }
+
+    @Test
+    public void testTaskStatsFollowReassignmentAndDeletion() throws Exception {
+        mockMvc.perform(put("/tasks/task1")
+                        .param("userId", "user3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"description\": \"Compléter le rapport\", \"assignedToUserId\": \"user3\", \"companyId\": \"company2\" }"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/tasks/task2")
+                        .param("userId", "user3"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/tasks/stats")
+                        .param("userId", "user3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.byCompanyId.company1").doesNotExist())
+                .andExpect(jsonPath("$.byCompanyId.company2").value(2))
+                .andExpect(jsonPath("$.byAssignedToUserId.user1").doesNotExist())
+                .andExpect(jsonPath("$.byAssignedToUserId.user3").value(2));
+    }
+
+    @Test
+    public void testExpiredTaskIsArchivedAndStillReadableById() throws Exception {
+        mockMvc.perform(post("/tasks")
+                        .param("userId", "user1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"id\": \"task7\", \"description\": \"Ancienne tâche\", \"assignedToUserId\": \"user1\","
+                                + " \"companyId\": \"company1\", \"expiresAt\": \"2020-01-01T00:00:00Z\" }"))
+                .andExpect(status().isCreated());
+        assertEquals(1, taskService.archiveExpiredTasks(Instant.now(), 100));
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user1"))
+                .andExpect(jsonPath("$[*].id", contains("task1")));
+        mockMvc.perform(get("/tasks/stats")
+                        .param("userId", "user1"))
+                .andExpect(jsonPath("$.total").value(1));
+        mockMvc.perform(get("/tasks/task7")
+                        .param("userId", "user1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresAt").value("2020-01-01T00:00:00Z"))
+                .andExpect(jsonPath("$.archivedAt").exists());
+        mockMvc.perform(get("/tasks/task7")
+                        .param("userId", "user2"))
+                .andExpect(status().isOk());
+
+        // Une mise à jour sans échéance ramène la tâche parmi les tâches actives
+        mockMvc.perform(put("/tasks/task7")
+                        .param("userId", "user1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"description\": \"Tâche relancée\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" }"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user1"))
+                .andExpect(jsonPath("$[*].id", contains("task1", "task7")))
+                .andExpect(jsonPath("$[1].archivedAt").doesNotExist());
+        assertEquals(0, taskService.getArchivedTaskCount());
+    }
+
+    // **POST/PUT/DELETE /tasks/batch?userId={userId}**
+
+    @Test
+    public void testCreateTasksInBatchAsStandardUser() throws Exception {
+        String newTasksJson = "[ { \"id\": \"task7\", \"description\": \"Tâche A\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" },"
+                + " { \"id\": \"task8\", \"description\": \"Tâche B\", \"assignedToUserId\": \"user2\", \"companyId\": \"company1\" } ]";
+        mockMvc.perform(post("/tasks/batch")
+                        .param("userId", "user1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(newTasksJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(403));
+
+        mockMvc.perform(get("/tasks/task7")
+                        .param("userId", "user1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testUpdateAndDeleteTasksInBatchAsCompanyAdmin() throws Exception {
+        String updatedTasksJson = "[ { \"id\": \"task1\", \"description\": \"Lot\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" },"
+                + " { \"id\": \"task3\", \"description\": \"Lot\", \"assignedToUserId\": \"user3\", \"companyId\": \"company2\" },"
+                + " { \"id\": \"task9\", \"description\": \"Lot\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" } ]";
+        mockMvc.perform(put("/tasks/batch")
+                        .param("userId", "user2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatedTasksJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status", contains(200, 403, 404)));
+
+        mockMvc.perform(delete("/tasks/batch")
+                        .param("userId", "user2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[ \"task1\", \"task2\", \"task3\", null ]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status", contains(200, 200, 403, 400)));
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user2"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    // **POST /tasks/import et GET /tasks/export?userId={userId}**
+
+    @Test
+    public void testImportTasksFromNdjson() throws Exception {
+        String ndjson = "{ \"id\": \"task7\", \"description\": \"Import A\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" }\n"
+                + "{ \"id\": \"task8\", \"description\": \"Import B\", \"assignedToUserId\": \"user2\", \"companyId\": \"company1\" }\n"
+                + "{ \"description\": \"Sans ID\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" }\n"
+                + "{ \"id\": \"task9\", \"description\": \"Import C\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" }\n";
+        mockMvc.perform(post("/tasks/import")
+                        .param("userId", "user1")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[*].status", contains(403, 400)))
+                .andExpect(jsonPath("$.errors[0].id").value("task8"));
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user1"))
+                .andExpect(jsonPath("$[*].id", contains("task1", "task7", "task9")));
+    }
+
+    @Test
+    public void testImportTasksFromJsonArrayStopsAtMalformedInput() throws Exception {
+        String json = "[ { \"id\": \"task7\", \"description\": \"Import A\", \"assignedToUserId\": \"user1\", \"companyId\": \"company1\" },\n"
+                + "  { \"id\": \"task8\", \"description\": ";
+        mockMvc.perform(post("/tasks/import")
+                        .param("userId", "user2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].message", startsWith("Malformed input at line 2")));
+
+        mockMvc.perform(get("/tasks/task7")
+                        .param("userId", "user2"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testExportTasksAsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/tasks/export")
+                        .param("userId", "user2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", containsString("tasks.ndjson")))
+                .andExpect(content().string(allOf(
+                        startsWith("{\"id\":\"task1\""),
+                        containsString("\n{\"id\":\"task2\""),
+                        not(containsString("\"id\":\"task3\"")))));
+    }
+
+    @Test
+    public void testEvictedTenantIsReloadedByItsListing() throws Exception {
+        // Endpoint en lecture seule par défaut : le déchargement passe par le service
+        mockMvc.perform(delete("/actuator/tenants/company1"))
+                .andExpect(status().isMethodNotAllowed());
+        assertTrue(taskService.evictCompany("company1"));
+        mockMvc.perform(get("/actuator/tenants/company1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loaded").value(false))
+                .andExpect(jsonPath("$.taskCount").value(2));
+
+        mockMvc.perform(get("/tasks")
+                        .param("userId", "user2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains("task1", "task2")));
+
+        mockMvc.perform(get("/actuator/tenants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].companyId").value("company1"))
+                .andExpect(jsonPath("$[0].loaded").value(true))
+                .andExpect(jsonPath("$[1].companyId").value("company2"))
+                .andExpect(jsonPath("$[1].taskCount").value(1));
+    }
+}